@@ -1,5 +1,6 @@
 package org.example.avitotech.config;
 
+import org.example.avitotech.event.UsersChangedEvent;
 import org.example.avitotech.model.Team;
 import org.example.avitotech.model.User;
 import org.example.avitotech.repository.TeamRepository;
@@ -7,9 +8,12 @@ import org.example.avitotech.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Component
 public class DataAutoInitializer implements CommandLineRunner {
 
@@ -17,10 +21,14 @@ public class DataAutoInitializer implements CommandLineRunner {
 
     private final TeamRepository teamRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DataAutoInitializer(TeamRepository teamRepository, UserRepository userRepository) {
+    public DataAutoInitializer(TeamRepository teamRepository,
+                               UserRepository userRepository,
+                               ApplicationEventPublisher eventPublisher) {
         this.teamRepository = teamRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -61,6 +69,7 @@ public class DataAutoInitializer implements CommandLineRunner {
             user.setTeamName(teamName);
             user.setIsActive(true);
             userRepository.save(user);
+            eventPublisher.publishEvent(UsersChangedEvent.of(List.of(userId), List.of(teamName)));
             logger.info("✅ User '{}' created", userId);
         } else {
             logger.info("ℹ️ User '{}' already exists", userId);
@@ -0,0 +1,26 @@
+package org.example.avitotech.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.hibernate-cache")
+public class HibernateCacheProperties {
+
+    // Параметры регионов второго уровня, ключ - имя региона (users, teams, teams.members, ...)
+    private Map<String, Region> regions = new HashMap<>();
+
+    @Data
+    public static class Region {
+        private long maxSize = 10_000;
+
+        // Не задано - запись живёт до вытеснения или инвалидации
+        private Duration expireAfterWrite;
+    }
+}
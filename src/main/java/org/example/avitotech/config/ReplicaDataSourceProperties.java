@@ -0,0 +1,38 @@
+package org.example.avitotech.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaDataSourceProperties {
+
+    // Реплики для read-only транзакций методов @ReplicaRead; не заданы - все запросы идут в основную БД
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Сколько после своей записи пользователь читает из основной БД, а не из реплик
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    // Реплика с большим отставанием не получает запросов до следующей проверки
+    private Duration maxReplicationLag = Duration.ofSeconds(10);
+
+    private Duration replicaHealthCheckInterval = Duration.ofSeconds(5);
+
+    // Ожидание соединения реплики; после него запрос уходит на другую реплику или в основную БД
+    private Duration replicaConnectionTimeout = Duration.ofSeconds(1);
+
+    @Data
+    public static class Replica {
+        private String url;
+
+        // Не заданы - те же, что у основной БД
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,206 @@
+package org.example.avitotech.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Пулы соединений реплик, их состояние и окно read-your-writes. Реплики проверяются раз
+// в replica-health-check-interval: недоступная или отставшая больше max-replication-lag
+// не получает запросов до следующей успешной проверки. Окно read-your-writes хранится
+// в памяти экземпляра: запись через соседний экземпляр здесь не видна
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+public class ReplicaPool implements DisposableBean {
+
+    // Отставание воспроизведения WAL в секундах; 0 - реплика воспроизвела всё полученное
+    // (на простаивающей основной БД время последней транзакции не меняется) или это не реплика
+    private static final String REPLICATION_LAG_SQL =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                    "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    // Выставляется на время методов @ReplicaRead
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Long> primaryReadsUntil = new ConcurrentHashMap<>();
+    private final long readYourWritesNanos;
+    private final double maxLagSeconds;
+    private final int checkTimeoutSeconds;
+
+    public ReplicaPool(ReplicaDataSourceProperties properties,
+                       DataSourceProperties dataSourceProperties,
+                       Environment environment) {
+        this.readYourWritesNanos = properties.getReadYourWritesWindow().toNanos();
+        this.maxLagSeconds = properties.getMaxReplicationLag().toMillis() / 1000.0;
+        this.checkTimeoutSeconds = (int) Math.max(1, properties.getReplicaConnectionTimeout().toSeconds());
+
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReplicaDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+
+            // Настройки пула - те же, что у основной БД (spring.datasource.hikari)
+            HikariConfig config = Binder.get(environment)
+                    .bind("spring.datasource.hikari", HikariConfig.class)
+                    .orElseGet(HikariConfig::new);
+            config.setPoolName("replica-" + i);
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+            config.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            config.setReadOnly(true);
+            config.setConnectionTimeout(properties.getReplicaConnectionTimeout().toMillis());
+            // Недоступная при старте реплика не мешает запуску - её исключит проверка
+            config.setInitializationFailTimeout(-1);
+
+            replicas.add(new Replica(config.getPoolName(), new HikariDataSource(config)));
+        }
+        log.info("Read-only transactions are routed to {} replicas", replicas.size());
+    }
+
+    static Object withReplicaReads(MethodInvocation invocation) throws Throwable {
+        Boolean previous = REPLICA_READS.get();
+        REPLICA_READS.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous == null) {
+                REPLICA_READS.remove();
+            }
+        }
+    }
+
+    // Соединение для read-only транзакции: основная БД вне методов @ReplicaRead, если текущий
+    // пользователь недавно писал или здоровых реплик нет, иначе следующая здоровая реплика по кругу.
+    // Реплика, не выдавшая соединение, исключается до следующей проверки, и пробуется следующая
+    Connection getReadOnlyConnection(DataSource primary) throws SQLException {
+        if (REPLICA_READS.get() == null) {
+            return primary.getConnection();
+        }
+
+        String user = currentUser();
+        if (user != null) {
+            Long until = primaryReadsUntil.get(user);
+            if (until != null && until - System.nanoTime() > 0) {
+                return primary.getConnection();
+            }
+        }
+
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                markUnhealthy(replica, ex.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    // Вызывается при взятии соединения основной БД. После коммита пишущей транзакции
+    // read-only транзакции того же пользователя читают основную БД read-your-writes-window
+    void recordWrite() {
+        String user = currentUser();
+        if (user == null
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                primaryReadsUntil.put(user, System.nanoTime() + readYourWritesNanos);
+            }
+        });
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.datasource.replica-health-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(checkTimeoutSeconds);
+                try (ResultSet rs = statement.executeQuery(REPLICATION_LAG_SQL)) {
+                    rs.next();
+                    double lagSeconds = rs.getDouble(1);
+                    if (lagSeconds > maxLagSeconds) {
+                        markUnhealthy(replica, "replication lag " + lagSeconds + " s");
+                    } else if (!replica.healthy) {
+                        replica.healthy = true;
+                        log.info("Replica {} is back in rotation, replication lag {} s", replica.name, lagSeconds);
+                    }
+                }
+            } catch (SQLException ex) {
+                markUnhealthy(replica, ex.getMessage());
+            }
+        }
+
+        long now = System.nanoTime();
+        primaryReadsUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} is out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+
+        // До первой проверки реплика не получает запросов
+        private volatile boolean healthy;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.avitotech.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Read-only транзакция метода может читать реплику. Остальные read-only транзакции идут в основную БД:
+// их результат попадает в кэши, ETag или статистику, и отставшая реплика оставила бы там устаревшие данные
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+}
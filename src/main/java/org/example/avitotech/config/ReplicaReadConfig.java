@@ -0,0 +1,29 @@
+package org.example.avitotech.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+// Методы @ReplicaRead выполняются в области, где read-only транзакции получают соединение реплики.
+// Совет стоит снаружи @Transactional: соединение берётся уже внутри области
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+public class ReplicaReadConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor replicaReadAdvisor() {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReplicaRead.class),
+                (MethodInterceptor) ReplicaPool::withReplicaReads);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.avitotech.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Физическое соединение берётся при первом запросе, когда транзакция уже пометила соединение
+// как readOnly: read-only транзакции получают соединение из ReplicaPool, остальные - основной БД
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicaPool) {
+        super(new PrimaryDataSource(primary, replicaPool));
+        setReadOnlyDataSource(new ReadOnlyDataSource(primary, replicaPool));
+    }
+
+    private static class PrimaryDataSource extends DelegatingDataSource {
+
+        private final ReplicaPool replicaPool;
+
+        PrimaryDataSource(DataSource primary, ReplicaPool replicaPool) {
+            super(primary);
+            this.replicaPool = replicaPool;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            replicaPool.recordWrite();
+            return super.getConnection();
+        }
+    }
+
+    private static class ReadOnlyDataSource extends DelegatingDataSource {
+
+        private final ReplicaPool replicaPool;
+
+        ReadOnlyDataSource(DataSource primary, ReplicaPool replicaPool) {
+            super(primary);
+            this.replicaPool = replicaPool;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return replicaPool.getReadOnlyConnection(obtainTargetDataSource());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.avitotech.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Оборачивает DataSource в ReplicaRoutingDataSource, если заданы реплики. Выполняется раньше
+// SqlCountingDataSourcePostProcessor, поэтому в счётчик запросов попадают и запросы к репликам
+@Component
+@ConditionalOnProperty(name = "app.datasource.replicas[0].url")
+public class ReplicaRoutingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<ReplicaPool> replicaPool;
+
+    public ReplicaRoutingDataSourcePostProcessor(ObjectProvider<ReplicaPool> replicaPool) {
+        this.replicaPool = replicaPool;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ReplicaRoutingDataSource)) {
+            return new ReplicaRoutingDataSource(dataSource, replicaPool.getObject());
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
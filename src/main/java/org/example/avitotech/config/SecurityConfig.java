@@ -31,14 +31,23 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/health").permitAll()
-                        .requestMatchers("/auth/admin-token", "/auth/user-token").permitAll()
+                        .requestMatchers("/auth/admin-token", "/auth/user-token", "/auth/batch-token").permitAll()
                         .requestMatchers(HttpMethod.POST, "/team/add").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/team/import").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/team/sync").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/team/get").hasAnyRole("ADMIN", "USER")
                         .requestMatchers(HttpMethod.POST, "/users/setIsActive").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/users/deactivate").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/users/getReview").hasAnyRole("ADMIN", "USER")
                         .requestMatchers(HttpMethod.POST, "/pullRequest/create").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/pullRequest/createBatch").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/pullRequest/merge").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/pullRequest/mergeBatch").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/pullRequest/reassign").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/pullRequest/search").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers(HttpMethod.GET, "/pullRequest/export").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/stats").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
 
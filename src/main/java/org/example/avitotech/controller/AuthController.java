@@ -1,25 +1,30 @@
 package org.example.avitotech.controller;
 
+import jakarta.validation.Valid;
+import org.example.avitotech.dto.BatchTokenDTO;
 import org.example.avitotech.dto.TokenDTO;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.jwt.JwtTokenProvider;
-import org.example.avitotech.model.User;
-import org.example.avitotech.repository.UserRepository;
+import org.example.avitotech.service.UserExistenceIndex;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
-    private final UserRepository userRepository;
+    private final UserExistenceIndex userExistenceIndex;
     private final JwtTokenProvider jwtTokenProvider;
 
-    public AuthController(UserRepository userRepository, JwtTokenProvider jwtTokenProvider) {
-        this.userRepository = userRepository;
+    public AuthController(UserExistenceIndex userExistenceIndex, JwtTokenProvider jwtTokenProvider) {
+        this.userExistenceIndex = userExistenceIndex;
         this.jwtTokenProvider = jwtTokenProvider;
     }
 
@@ -33,19 +38,46 @@ public class AuthController {
         return generateToken(tokenDTO.getUserId(), "USER", false);
     }
 
-    private ResponseEntity<?> generateToken(String userId, String role, boolean isAdmin) {
-        User user = userRepository.findByUserId(userId)
-                .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND));
+    @PostMapping("/batch-token")
+    public ResponseEntity<?> getBatchTokens(@Valid @RequestBody BatchTokenDTO batchTokenDTO) {
+        boolean isAdmin = "ADMIN".equals(batchTokenDTO.getRole());
+        String role = isAdmin ? "ADMIN" : "USER";
 
-        String token = isAdmin
-                ? jwtTokenProvider.createAdminToken(userId)
-                : jwtTokenProvider.createUserToken(userId);
+        Set<String> userIds = new LinkedHashSet<>(batchTokenDTO.getUserIds());
+        Set<String> notFound = userExistenceIndex.findMissing(userIds);
+
+        List<Map<String, String>> tokens = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!notFound.contains(userId)) {
+                tokens.add(Map.of(
+                        "token", issue(userId, isAdmin),
+                        "role", role,
+                        "userId", userId
+                ));
+            }
+        }
 
         return ResponseEntity.ok(Map.of(
-                "token", token,
+                "tokens", tokens,
+                "notFound", notFound
+        ));
+    }
+
+    private ResponseEntity<?> generateToken(String userId, String role, boolean isAdmin) {
+        if (!userExistenceIndex.exists(userId)) {
+            throw new ApiException(ErrorCode.NOT_FOUND);
+        }
+
+        return ResponseEntity.ok(Map.of(
+                "token", issue(userId, isAdmin),
                 "role", role,
-                "userId", user.getUserId()
+                "userId", userId
         ));
     }
-}
 
+    private String issue(String userId, boolean isAdmin) {
+        return isAdmin
+                ? jwtTokenProvider.createAdminToken(userId)
+                : jwtTokenProvider.createUserToken(userId);
+    }
+}
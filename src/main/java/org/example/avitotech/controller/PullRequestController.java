@@ -1,47 +1,74 @@
 package org.example.avitotech.controller;
 
+import org.example.avitotech.dto.PullRequestBatchCreateRequest;
+import org.example.avitotech.dto.PullRequestBatchItemResponse;
+import org.example.avitotech.dto.PullRequestBatchMergeItemResponse;
+import org.example.avitotech.dto.PullRequestBatchMergeRequest;
 import org.example.avitotech.dto.PullRequestCreateRequest;
 import org.example.avitotech.dto.PullRequestMergeRequest;
 import org.example.avitotech.dto.PullRequestReassignRequest;
+import org.example.avitotech.dto.PullRequestReassignResponse;
 import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.dto.PullRequestSearchResponse;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.service.PullRequestExportService;
 import org.example.avitotech.service.PullRequestService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
 @RequestMapping("/pullRequest")
 public class PullRequestController {
 
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 50;
+    private static final int MAX_SEARCH_PAGE_SIZE = 500;
+
     private final PullRequestService pullRequestService;
+    private final PullRequestExportService pullRequestExportService;
 
-    public PullRequestController(PullRequestService pullRequestService) {
+    public PullRequestController(PullRequestService pullRequestService,
+                                 PullRequestExportService pullRequestExportService) {
         this.pullRequestService = pullRequestService;
+        this.pullRequestExportService = pullRequestExportService;
     }
 
     @PostMapping("/create")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> createPullRequest(@Valid @RequestBody PullRequestCreateRequest request) {
-        log.info("Received request to create pull request: prId={}, prName={}, authorId={}, reviewers={}",
-                request.getPrId(), request.getPrName(), request.getAuthorId(), request.getReviewers().size());
+        log.info("Received request to create pull request: prId={}, prName={}, authorId={}, reviewers={}, autoAssign={}",
+                request.getPrId(), request.getPrName(), request.getAuthorId(),
+                request.getReviewers() != null ? request.getReviewers().size() : 0, request.autoAssignRequested());
 
         try {
-            PullRequest pullRequest = pullRequestService.createPullRequest(
-                    request.getPrId(),
-                    request.getPrName(),
-                    request.getAuthorId(),
-                    request.getReviewers()
-            );
+            PullRequest pullRequest = request.autoAssignRequested()
+                    ? pullRequestService.createPullRequestWithAutoAssign(
+                            request.getPrId(),
+                            request.getPrName(),
+                            request.getAuthorId())
+                    : pullRequestService.createPullRequest(
+                            request.getPrId(),
+                            request.getPrName(),
+                            request.getAuthorId(),
+                            request.getReviewers());
 
             log.info("Pull request created successfully: {}", request.getPrId());
 
@@ -61,6 +88,39 @@ public class PullRequestController {
         }
     }
 
+    @PostMapping("/createBatch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createPullRequests(@Valid @RequestBody PullRequestBatchCreateRequest request) {
+        log.info("Received request to create pull requests in batch: count={}", request.getPullRequests().size());
+
+        try {
+            List<PullRequestBatchItemResponse> results = pullRequestService.createPullRequests(
+                    request.getPullRequests().stream()
+                            .map(PullRequestCreateRequest::toEntity)
+                            .toList()
+            );
+
+            long created = results.stream().filter(PullRequestBatchItemResponse::isCreated).count();
+            log.info("Batch pull request creation finished: created={}, failed={}", created, results.size() - created);
+
+            return ResponseEntity.ok(Map.of(
+                    "results", results,
+                    "created", created,
+                    "failed", results.size() - created
+            ));
+        } catch (ApiException ex) {
+            log.warn("Error creating pull requests in batch: {}", ex.getLogDescription());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while creating pull requests in batch", ex);
+            throw new ApiException(
+                    ErrorCode.INTERNAL_SERVER_ERROR,
+                    "Unexpected error during batch PR creation: " + ex.getMessage(),
+                    ex
+            );
+        }
+    }
+
     @PostMapping("/merge")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> mergePullRequest(@Valid @RequestBody PullRequestMergeRequest request) {
@@ -87,6 +147,37 @@ public class PullRequestController {
         }
     }
 
+    @PostMapping("/mergeBatch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> mergePullRequests(@Valid @RequestBody PullRequestBatchMergeRequest request) {
+        log.info("Received request to merge pull requests in batch: count={}", request.getPrIds().size());
+
+        try {
+            List<PullRequestBatchMergeItemResponse> results = pullRequestService.mergePullRequests(request.getPrIds());
+
+            Map<String, Long> counts = results.stream()
+                    .collect(Collectors.groupingBy(PullRequestBatchMergeItemResponse::getResult, Collectors.counting()));
+            log.info("Batch pull request merge finished: {}", counts);
+
+            return ResponseEntity.ok(Map.of(
+                    "results", results,
+                    "merged", counts.getOrDefault(PullRequestBatchMergeItemResponse.MERGED, 0L),
+                    "already_merged", counts.getOrDefault(PullRequestBatchMergeItemResponse.ALREADY_MERGED, 0L),
+                    "not_found", counts.getOrDefault(PullRequestBatchMergeItemResponse.NOT_FOUND, 0L)
+            ));
+        } catch (ApiException ex) {
+            log.warn("Error merging pull requests in batch: {}", ex.getLogDescription());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while merging pull requests in batch", ex);
+            throw new ApiException(
+                    ErrorCode.INTERNAL_SERVER_ERROR,
+                    "Unexpected error during batch PR merge: " + ex.getMessage(),
+                    ex
+            );
+        }
+    }
+
     @PostMapping("/reassign")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> reassignReviewer(@Valid @RequestBody PullRequestReassignRequest request) {
@@ -94,17 +185,24 @@ public class PullRequestController {
                 request.getPrId(), request.getOldReviewerId(), request.getNewReviewerId());
 
         try {
-            PullRequest updatedPullRequest = pullRequestService.reassignReviewer(
-                    request.getPrId(),
-                    request.getOldReviewerId(),
-                    request.getNewReviewerId()
-            );
+            PullRequestReassignResponse response;
+            if (request.newReviewerSpecified()) {
+                PullRequest updatedPullRequest = pullRequestService.reassignReviewer(
+                        request.getPrId(),
+                        request.getOldReviewerId(),
+                        request.getNewReviewerId()
+                );
+                response = PullRequestReassignResponse.of(updatedPullRequest, request.getNewReviewerId());
+            } else {
+                response = pullRequestService.reassignReviewerAutomatically(
+                        request.getPrId(),
+                        request.getOldReviewerId()
+                );
+            }
 
-            log.info("Reviewer reassigned successfully: {}", request.getPrId());
+            log.info("Reviewer reassigned successfully: {}, replaced by {}", request.getPrId(), response.getReplacedBy());
 
-            return ResponseEntity.ok(
-                    Map.of("pr", PullRequestResponse.from(updatedPullRequest))
-            );
+            return ResponseEntity.ok(response);
         } catch (ApiException ex) {
             log.warn("Error reassigning reviewer: {}", ex.getLogDescription());
             throw ex;
@@ -117,4 +215,136 @@ public class PullRequestController {
             );
         }
     }
+
+    // Все фильтры необязательны и объединяются через AND; team_name - команда автора; архив слитых PR -
+    // только с include_archived=true. Выдача от новых к старым, next_cursor передаётся в cursor для следующей страницы
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<?> searchPullRequests(
+            @RequestParam(name = "team_name", required = false) String teamName,
+            @RequestParam(name = "author_id", required = false) String authorId,
+            @RequestParam(name = "reviewer_id", required = false) String reviewerId,
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "created_from", required = false) String createdFrom,
+            @RequestParam(name = "created_to", required = false) String createdTo,
+            @RequestParam(name = "include_archived", defaultValue = "false") boolean includeArchived,
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_SEARCH_PAGE_SIZE) int limit,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        log.debug("Received request to search pull requests: teamName={}, authorId={}, reviewerId={}, status={}, " +
+                        "createdFrom={}, createdTo={}, includeArchived={}, limit={}",
+                teamName, authorId, reviewerId, status, createdFrom, createdTo, includeArchived, limit);
+
+        try {
+            if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+                throw new ApiException(
+                        ErrorCode.BAD_REQUEST,
+                        "limit must be between 1 and " + MAX_SEARCH_PAGE_SIZE,
+                        ErrorCode.ErrorCategory.CLIENT_ERROR);
+            }
+
+            LocalDateTime from = parseDateTime("created_from", createdFrom);
+            LocalDateTime to = parseDateTime("created_to", createdTo);
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new ApiException(
+                        ErrorCode.BAD_REQUEST,
+                        "created_from must be before created_to",
+                        ErrorCode.ErrorCategory.CLIENT_ERROR);
+            }
+
+            PullRequestJdbcRepository.SearchFilter filter = PullRequestJdbcRepository.SearchFilter.builder()
+                    .teamName(emptyToNull(teamName))
+                    .authorId(emptyToNull(authorId))
+                    .reviewerId(emptyToNull(reviewerId))
+                    .status(parseStatusFilter(status))
+                    .createdFrom(from)
+                    .createdTo(to)
+                    .includeArchived(includeArchived)
+                    .build();
+
+            PullRequestSearchResponse response = pullRequestService.searchPullRequests(filter, limit, cursor);
+
+            log.debug("Found {} pull requests", response.getPullRequests().size());
+
+            return ResponseEntity.ok(response);
+        } catch (ApiException ex) {
+            log.warn("Error searching pull requests: {}", ex.getLogDescription());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while searching pull requests", ex);
+            throw new ApiException(
+                    ErrorCode.INTERNAL_SERVER_ERROR,
+                    "Unexpected error during pull request search: " + ex.getMessage(),
+                    ex
+            );
+        }
+    }
+
+    // NDJSON: один PR на строку. created_from включительно, created_to не включительно;
+    // даты в ISO-8601, допускается дата без времени. Архив слитых PR выгружается по умолчанию
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportPullRequests(
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "created_from", required = false) String createdFrom,
+            @RequestParam(name = "created_to", required = false) String createdTo,
+            @RequestParam(name = "include_archived", defaultValue = "true") boolean includeArchived) {
+        log.info("Received request to export pull requests: status={}, createdFrom={}, createdTo={}, includeArchived={}",
+                status, createdFrom, createdTo, includeArchived);
+
+        PullRequestStatus statusFilter = parseStatusFilter(status);
+        LocalDateTime from = parseDateTime("created_from", createdFrom);
+        LocalDateTime to = parseDateTime("created_to", createdTo);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ApiException(
+                    ErrorCode.BAD_REQUEST,
+                    "created_from must be before created_to",
+                    ErrorCode.ErrorCategory.CLIENT_ERROR);
+        }
+
+        // Тело пишется после выхода из метода, в потоке асинхронной обработки запроса
+        StreamingResponseBody body = out -> {
+            try {
+                pullRequestExportService.exportPullRequests(statusFilter, from, to, includeArchived, out);
+            } catch (Exception ex) {
+                log.error("Pull request export interrupted", ex);
+                throw ex;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private static PullRequestStatus parseStatusFilter(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return PullRequestStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(
+                    ErrorCode.BAD_REQUEST,
+                    "status must be one of OPEN, MERGED",
+                    ErrorCode.ErrorCategory.CLIENT_ERROR);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String name, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(
+                    ErrorCode.BAD_REQUEST,
+                    name + " must be an ISO-8601 date or date-time",
+                    ErrorCode.ErrorCategory.CLIENT_ERROR);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value != null && !value.isBlank() ? value : null;
+    }
 }
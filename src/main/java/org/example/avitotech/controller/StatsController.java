@@ -0,0 +1,71 @@
+package org.example.avitotech.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.dto.StatsResponse;
+import org.example.avitotech.exception.ApiException;
+import org.example.avitotech.exception.ErrorCode;
+import org.example.avitotech.service.AssignmentStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private static final int DEFAULT_USER_LIMIT = 100;
+    private static final int MAX_USER_LIMIT = 1000;
+
+    private final AssignmentStatistics assignmentStatistics;
+
+    @Autowired
+    public StatsController(AssignmentStatistics assignmentStatistics) {
+        this.assignmentStatistics = assignmentStatistics;
+    }
+
+    // Счётчики берутся из памяти, запросов к БД нет. С pr_id - счётчики одного PR; для слитого PR - один запрос
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<?> getStats(@RequestParam(name = "team_name", required = false) String teamName,
+                                      @RequestParam(name = "pr_id", required = false) String prId,
+                                      @RequestParam(name = "limit", defaultValue = "" + DEFAULT_USER_LIMIT) int limit) {
+        log.debug("Received request to get assignment statistics: teamName={}, prId={}, limit={}", teamName, prId, limit);
+
+        try {
+            if (prId != null && !prId.isBlank()) {
+                return ResponseEntity.ok(assignmentStatistics.pullRequestSnapshot(prId)
+                        .orElseThrow(() -> new ApiException(
+                                ErrorCode.NOT_FOUND,
+                                "Pull request not found",
+                                ErrorCode.ErrorCategory.NOT_FOUND)));
+            }
+
+            if (limit < 1 || limit > MAX_USER_LIMIT) {
+                throw new ApiException(
+                        ErrorCode.BAD_REQUEST,
+                        "limit must be between 1 and " + MAX_USER_LIMIT,
+                        ErrorCode.ErrorCategory.CLIENT_ERROR);
+            }
+
+            StatsResponse response = assignmentStatistics.snapshot(
+                    teamName != null && !teamName.isBlank() ? teamName : null, limit);
+
+            return ResponseEntity.ok(response);
+        } catch (ApiException ex) {
+            log.warn("Error retrieving assignment statistics: {}", ex.getLogDescription());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while retrieving assignment statistics", ex);
+            throw new ApiException(
+                    ErrorCode.INTERNAL_SERVER_ERROR,
+                    "Unexpected error during statistics retrieval: " + ex.getMessage(),
+                    ex
+            );
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package org.example.avitotech.controller;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.dto.TeamImportResponse;
 import org.example.avitotech.dto.TeamRequest;
 import org.example.avitotech.dto.TeamResponse;
+import org.example.avitotech.dto.TeamSyncResponse;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.model.Team;
+import org.example.avitotech.service.ResourceVersions;
+import org.example.avitotech.service.TeamImportService;
 import org.example.avitotech.service.TeamService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
 import java.util.Map;
 
 @Slf4j
@@ -22,10 +29,14 @@ import java.util.Map;
 public class TeamController {
 
     private final TeamService teamService;
+    private final TeamImportService teamImportService;
+    private final ResourceVersions resourceVersions;
 
     @Autowired
-    public TeamController(TeamService teamService) {
+    public TeamController(TeamService teamService, TeamImportService teamImportService, ResourceVersions resourceVersions) {
         this.teamService = teamService;
+        this.teamImportService = teamImportService;
+        this.resourceVersions = resourceVersions;
     }
 
     @PostMapping("/add")
@@ -57,10 +68,55 @@ public class TeamController {
         }
     }
 
+    // Желаемый состав команды в формате /team/add; в БД пишутся только отличия от текущего
+    @PostMapping("/sync")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> syncTeam(@RequestBody @Valid TeamRequest teamRequest) {
+        log.info("Received request to sync team: {}", teamRequest.getTeamName());
+
+        try {
+            TeamSyncResponse response = teamService.syncTeam(teamRequest.toEntity());
+            return ResponseEntity.ok(response);
+        } catch (ApiException ex) {
+            log.warn("Error syncing team '{}': {}", teamRequest.getTeamName(), ex.getLogDescription());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while syncing team '{}'", teamRequest.getTeamName(), ex);
+            throw new ApiException(
+                    ErrorCode.INTERNAL_SERVER_ERROR,
+                    "Unexpected error during team sync: " + ex.getMessage(),
+                    ex
+            );
+        }
+    }
+
+    // JSON-массив команд или NDJSON (одна команда на строку) в формате /team/add; тело читается потоком
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importTeams(InputStream body) {
+        log.info("Received request to import teams");
+
+        try {
+            TeamImportResponse response = teamImportService.importTeams(body);
+            return ResponseEntity.ok(response);
+        } catch (ApiException ex) {
+            log.warn("Error importing teams: {}", ex.getLogDescription());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while importing teams", ex);
+            throw new ApiException(
+                    ErrorCode.INTERNAL_SERVER_ERROR,
+                    "Unexpected error during team import: " + ex.getMessage(),
+                    ex
+            );
+        }
+    }
+
     @GetMapping("/get")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<?> getTeam(
-            @RequestParam(name = "team_name") String teamName) {
+            @RequestParam(name = "team_name") String teamName,
+            WebRequest webRequest) {
 
         log.debug("Received request to get team: {}", teamName);
 
@@ -72,11 +128,17 @@ public class TeamController {
                         "Team name cannot be empty", ErrorCode.ErrorCategory.CONFLICT);
             }
 
+            // Версия читается до данных; при совпадении с If-None-Match отвечаем 304 без обращения к БД
+            String eTag = resourceVersions.teamETag(teamName);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+
             Team team = teamService.getTeamByName(teamName);
             TeamResponse response = TeamResponse.from(team);
             log.debug("Team retrieved successfully: {}", teamName);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(eTag).body(response);
         } catch (ApiException ex) {
             log.warn("Error retrieving team '{}': {}", teamName, ex.getLogDescription());
             throw ex;
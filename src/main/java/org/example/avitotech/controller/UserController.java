@@ -1,32 +1,39 @@
 package org.example.avitotech.controller;
 
-import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.dto.UserDeactivateRequest;
+import org.example.avitotech.dto.UserDeactivateResponse;
+import org.example.avitotech.dto.UserReviewResponse;
 import org.example.avitotech.dto.UserSetActiveRequest;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
-import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.service.ResourceVersions;
 import org.example.avitotech.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
+    private static final int DEFAULT_REVIEW_PAGE_SIZE = 50;
+    private static final int MAX_REVIEW_PAGE_SIZE = 500;
+
     private final UserService userService;
+    private final ResourceVersions resourceVersions;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ResourceVersions resourceVersions) {
         this.userService = userService;
+        this.resourceVersions = resourceVersions;
     }
 
     @PostMapping("/setIsActive")
@@ -61,11 +68,44 @@ public class UserController {
         }
     }
 
+    @PostMapping("/deactivate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> deactivateUsers(@Valid @RequestBody UserDeactivateRequest request) {
+        log.info("Received request to deactivate users: userIds={}, teamName={}",
+                request.getUserIds(), request.getTeamName());
+
+        try {
+            UserDeactivateResponse response = request.getTeamName() != null && !request.getTeamName().isBlank()
+                    ? userService.deactivateUsers(null, request.getTeamName())
+                    : userService.deactivateUsers(request.getUserIds(), null);
+
+            log.info("Users deactivated: deactivated={}, reassignedReviews={}",
+                    response.getDeactivated().size(), response.getReassignedReviews());
+
+            return ResponseEntity.ok(response);
+        } catch (ApiException ex) {
+            log.warn("Error deactivating users: {}", ex.getLogDescription());
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Unexpected error while deactivating users", ex);
+            throw new ApiException(
+                    ErrorCode.INTERNAL_SERVER_ERROR,
+                    "Unexpected error during users deactivation: " + ex.getMessage(),
+                    ex
+            );
+        }
+    }
+
     @GetMapping("/getReview")
     @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
-    public ResponseEntity<?> getUserReview(@RequestParam(name = "user_id") String userId) {
+    public ResponseEntity<?> getUserReview(@RequestParam(name = "user_id") String userId,
+                                           @RequestParam(name = "status", defaultValue = "OPEN") String status,
+                                           @RequestParam(name = "limit", defaultValue = "" + DEFAULT_REVIEW_PAGE_SIZE) int limit,
+                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                           @RequestParam(name = "include_archived", defaultValue = "false") boolean includeArchived,
+                                           WebRequest webRequest) {
 
-        log.debug("Received request to get review PRs for user: {}", userId);
+        log.debug("Received request to get review PRs for user: userId={}, status={}, limit={}", userId, status, limit);
 
         try {
             if (userId == null || userId.trim().isEmpty()) {
@@ -76,25 +116,24 @@ public class UserController {
                         ErrorCode.ErrorCategory.CONFLICT);
             }
 
-            if (!userService.userExists(userId)) {
-                log.warn("User not found: {}", userId);
+            if (limit < 1 || limit > MAX_REVIEW_PAGE_SIZE) {
                 throw new ApiException(
-                        ErrorCode.NOT_FOUND,
-                        "User not found",
-                        ErrorCode.ErrorCategory.CONFLICT);
+                        ErrorCode.BAD_REQUEST,
+                        "limit must be between 1 and " + MAX_REVIEW_PAGE_SIZE,
+                        ErrorCode.ErrorCategory.CLIENT_ERROR);
             }
 
-            List<PullRequest> pullRequests = userService.getUserPullRequests(userId);
+            // Версия читается до данных; при совпадении с If-None-Match отвечаем 304 без обращения к БД
+            String eTag = resourceVersions.reviewInboxETag(userId);
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
 
-            List<PullRequestResponse> responses = pullRequests.stream()
-                    .map(PullRequestResponse::from)
-                    .collect(Collectors.toList());
+            UserReviewResponse response = userService.getUserPullRequests(userId, parseStatusFilter(status), limit, cursor, includeArchived);
 
-            log.debug("Retrieved {} pull requests for user: {}", responses.size(), userId);
+            log.debug("Retrieved {} pull requests for user: {}", response.getPullRequests().size(), userId);
 
-            return ResponseEntity.ok(
-                    Map.of("pull_requests", responses)
-            );
+            return ResponseEntity.ok().eTag(eTag).body(response);
         } catch (ApiException ex) {
             log.warn("Error retrieving user review PRs '{}': {}", userId, ex.getLogDescription());
             throw ex;
@@ -107,4 +146,19 @@ public class UserController {
             );
         }
     }
+
+    // ALL - без фильтра по статусу
+    private static PullRequestStatus parseStatusFilter(String status) {
+        if ("ALL".equalsIgnoreCase(status)) {
+            return null;
+        }
+        try {
+            return PullRequestStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(
+                    ErrorCode.BAD_REQUEST,
+                    "status must be one of OPEN, MERGED, ALL",
+                    ErrorCode.ErrorCategory.CLIENT_ERROR);
+        }
+    }
 }
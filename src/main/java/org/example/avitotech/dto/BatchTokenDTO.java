@@ -0,0 +1,19 @@
+package org.example.avitotech.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTokenDTO {
+
+    @NotEmpty(message = "userIds list cannot be empty")
+    @Size(max = 1000, message = "userIds list cannot contain more than 1000 ids")
+    private List<String> userIds;
+
+    @Pattern(regexp = "ADMIN|USER", message = "role must be ADMIN or USER")
+    private String role = "USER";
+}
@@ -0,0 +1,25 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PullRequestBatchCreateRequest {
+
+    @JsonProperty("pull_requests")
+    @NotEmpty(message = "pull_requests list cannot be empty")
+    @Size(max = 5000, message = "pull_requests list cannot contain more than 5000 items")
+    @Valid
+    private List<PullRequestCreateRequest> pullRequests;
+}
@@ -0,0 +1,58 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.avitotech.exception.ErrorCode;
+import org.example.avitotech.model.PullRequest;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PullRequestBatchItemResponse {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    @JsonProperty("pr_id")
+    private String prId;
+
+    @JsonProperty("result")
+    private String result;
+
+    @JsonProperty("pr")
+    private PullRequestResponse pr;
+
+    @JsonProperty("error")
+    private ErrorResponse.Error error;
+
+    public static PullRequestBatchItemResponse created(PullRequest pullRequest) {
+        return PullRequestBatchItemResponse.builder()
+                .prId(pullRequest.getPullRequestId())
+                .result(CREATED)
+                .pr(PullRequestResponse.from(pullRequest))
+                .build();
+    }
+
+    public static PullRequestBatchItemResponse failed(String prId, ErrorCode errorCode, String message) {
+        return PullRequestBatchItemResponse.builder()
+                .prId(prId)
+                .result(FAILED)
+                .error(ErrorResponse.Error.builder()
+                        .code(errorCode.getCode())
+                        .message(message)
+                        .build())
+                .build();
+    }
+
+    @JsonIgnore
+    public boolean isCreated() {
+        return CREATED.equals(result);
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PullRequestBatchMergeItemResponse {
+
+    public static final String MERGED = "MERGED";
+    public static final String ALREADY_MERGED = "ALREADY_MERGED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    @JsonProperty("pr_id")
+    private String prId;
+
+    @JsonProperty("result")
+    private String result;
+
+    @JsonProperty("merged_at")
+    private LocalDateTime mergedAt;
+
+    public static PullRequestBatchMergeItemResponse merged(String prId, LocalDateTime mergedAt) {
+        return new PullRequestBatchMergeItemResponse(prId, MERGED, mergedAt);
+    }
+
+    public static PullRequestBatchMergeItemResponse alreadyMerged(String prId, LocalDateTime mergedAt) {
+        return new PullRequestBatchMergeItemResponse(prId, ALREADY_MERGED, mergedAt);
+    }
+
+    public static PullRequestBatchMergeItemResponse notFound(String prId) {
+        return new PullRequestBatchMergeItemResponse(prId, NOT_FOUND, null);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PullRequestBatchMergeRequest {
+
+    @JsonProperty("pr_ids")
+    @NotEmpty(message = "pr_ids list cannot be empty")
+    @Size(max = 5000, message = "pr_ids list cannot contain more than 5000 items")
+    private List<@NotBlank(message = "pr_id cannot be blank") String> prIds;
+}
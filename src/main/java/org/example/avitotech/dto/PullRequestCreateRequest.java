@@ -1,13 +1,22 @@
 package org.example.avitotech.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.example.avitotech.model.AssignedReviewer;
+import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Data
 @NoArgsConstructor
@@ -28,6 +37,42 @@ public class PullRequestCreateRequest {
     private String authorId;
 
     @JsonProperty("reviewers")
-    @NotEmpty(message = "reviewers list cannot be empty")
     private List<String> reviewers;
+
+    @JsonProperty("auto_assign")
+    private Boolean autoAssign;
+
+    public boolean autoAssignRequested() {
+        return Boolean.TRUE.equals(autoAssign);
+    }
+
+    // Ревьюверы передаются явно либо подбираются автоматически, но не одновременно
+    @JsonIgnore
+    @AssertTrue(message = "reviewers list cannot be empty unless auto_assign is set, and must be empty when it is")
+    public boolean isReviewersSpecified() {
+        boolean hasReviewers = reviewers != null && !reviewers.isEmpty();
+        return autoAssignRequested() != hasReviewers;
+    }
+
+    public PullRequest toEntity() {
+        List<AssignedReviewer> assignedReviewers = new ArrayList<>();
+
+        if (this.reviewers != null) {
+            assignedReviewers = new LinkedHashSet<>(this.reviewers).stream()
+                    .map(reviewerId -> AssignedReviewer.builder()
+                            .pullRequestId(this.prId)
+                            .userId(reviewerId)
+                            .build())
+                    .collect(Collectors.toList());
+        }
+
+        return PullRequest.builder()
+                .pullRequestId(this.prId)
+                .pullRequestName(this.prName)
+                .authorId(this.authorId)
+                .status(PullRequestStatus.OPEN)
+                .createdAt(LocalDateTime.now())
+                .assignedReviewers(assignedReviewers)
+                .build();
+    }
 }
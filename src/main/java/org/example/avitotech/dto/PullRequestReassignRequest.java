@@ -21,7 +21,11 @@ public class PullRequestReassignRequest {
     @NotBlank(message = "old_reviewer_id is required")
     private String oldReviewerId;
 
+    // Если не указан, замена подбирается автоматически из команды старого ревьювера
     @JsonProperty("new_reviewer_id")
-    @NotBlank(message = "new_reviewer_id is required")
     private String newReviewerId;
+
+    public boolean newReviewerSpecified() {
+        return newReviewerId != null && !newReviewerId.isBlank();
+    }
 }
@@ -0,0 +1,28 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.avitotech.model.PullRequest;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PullRequestReassignResponse {
+
+    @JsonProperty("pr")
+    private PullRequestResponse pr;
+
+    @JsonProperty("replaced_by")
+    private String replacedBy;
+
+    public static PullRequestReassignResponse of(PullRequest pullRequest, String replacedBy) {
+        return PullRequestReassignResponse.builder()
+                .pr(PullRequestResponse.from(pullRequest))
+                .replacedBy(replacedBy)
+                .build();
+    }
+}
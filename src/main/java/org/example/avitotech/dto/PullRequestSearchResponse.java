@@ -0,0 +1,25 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PullRequestSearchResponse {
+
+    @JsonProperty("pull_requests")
+    private List<PullRequestResponse> pullRequests;
+
+    // Отсутствует на последней странице
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
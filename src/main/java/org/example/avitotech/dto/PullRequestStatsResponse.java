@@ -0,0 +1,34 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.avitotech.model.PullRequestStatus;
+
+import java.time.LocalDateTime;
+
+// Счётчики одного PR для /stats?pr_id=
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PullRequestStatsResponse {
+
+    // Нет у PR, прочитанного из таблиц
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    @JsonProperty("pull_request_id")
+    private String pullRequestId;
+
+    @JsonProperty("status")
+    private PullRequestStatus status;
+
+    // Число назначенных ревьюверов
+    @JsonProperty("reviewers")
+    private int reviewers;
+}
@@ -0,0 +1,86 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsResponse {
+
+    // Время последней сверки счётчиков с таблицами; null, пока первая сверка не завершилась
+    @JsonProperty("reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    @JsonProperty("pull_requests")
+    private PullRequestStats pullRequests;
+
+    @JsonProperty("teams")
+    private List<TeamStats> teams;
+
+    @JsonProperty("users")
+    private List<UserStats> users;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PullRequestStats {
+
+        @JsonProperty("total")
+        private long total;
+
+        @JsonProperty("open")
+        private long open;
+
+        @JsonProperty("merged")
+        private long merged;
+
+        // Число ревьюверов на PR -> сколько PR с таким числом
+        @JsonProperty("by_reviewer_count")
+        private Map<Integer, Long> byReviewerCount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class TeamStats {
+
+        @JsonProperty("team_name")
+        private String teamName;
+
+        @JsonProperty("assignments")
+        private long assignments;
+
+        @JsonProperty("open_reviews")
+        private long openReviews;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class UserStats {
+
+        @JsonProperty("user_id")
+        private String userId;
+
+        @JsonProperty("team_name")
+        private String teamName;
+
+        @JsonProperty("assignments")
+        private long assignments;
+
+        @JsonProperty("open_reviews")
+        private long openReviews;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TeamImportResponse {
+
+    @JsonProperty("teams")
+    private long teams;
+
+    @JsonProperty("teams_created")
+    private long teamsCreated;
+
+    @JsonProperty("users_created")
+    private long usersCreated;
+
+    @JsonProperty("users_updated")
+    private long usersUpdated;
+
+    // Пользователи, чьи имя, команда и активность уже совпадали с файлом
+    @JsonProperty("users_unchanged")
+    private long usersUnchanged;
+}
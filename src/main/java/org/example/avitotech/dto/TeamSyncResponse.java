@@ -0,0 +1,47 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TeamSyncResponse {
+
+    @JsonProperty("team_name")
+    private String teamName;
+
+    @JsonProperty("team_created")
+    private boolean teamCreated;
+
+    // Новые пользователи
+    @JsonProperty("added")
+    private List<String> added;
+
+    // Пользователи, перенесённые из других команд
+    @JsonProperty("moved")
+    private List<String> moved;
+
+    // Участники команды, у которых изменились имя или активность
+    @JsonProperty("updated")
+    private List<String> updated;
+
+    // Участники, которых нет в списке: остаются в команде неактивными
+    @JsonProperty("deactivated")
+    private List<String> deactivated;
+
+    @JsonProperty("unchanged")
+    private int unchanged;
+
+    @JsonProperty("reassigned_reviews")
+    private int reassignedReviews;
+
+    @JsonProperty("reviews_without_candidate")
+    private int reviewsWithoutCandidate;
+}
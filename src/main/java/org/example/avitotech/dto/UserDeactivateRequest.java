@@ -0,0 +1,36 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDeactivateRequest {
+
+    @JsonProperty("user_ids")
+    @Size(max = 5000, message = "user_ids list cannot contain more than 5000 items")
+    private List<@NotBlank(message = "user_id cannot be blank") String> userIds;
+
+    @JsonProperty("team_name")
+    private String teamName;
+
+    // Деактивируется либо список пользователей, либо вся команда
+    @JsonIgnore
+    @AssertTrue(message = "exactly one of user_ids or team_name is required")
+    public boolean isTargetSpecified() {
+        boolean hasUserIds = userIds != null && !userIds.isEmpty();
+        boolean hasTeam = teamName != null && !teamName.isBlank();
+        return hasUserIds != hasTeam;
+    }
+}
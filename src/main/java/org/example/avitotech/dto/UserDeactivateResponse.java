@@ -0,0 +1,29 @@
+package org.example.avitotech.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserDeactivateResponse {
+
+    @JsonProperty("deactivated")
+    private List<String> deactivated;
+
+    @JsonProperty("not_found")
+    private List<String> notFound;
+
+    @JsonProperty("reassigned_reviews")
+    private int reassignedReviews;
+
+    // Открытые ревью, для которых в команде не нашлось активного кандидата
+    @JsonProperty("reviews_without_candidate")
+    private int reviewsWithoutCandidate;
+}
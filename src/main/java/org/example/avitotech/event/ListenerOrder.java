@@ -0,0 +1,14 @@
+package org.example.avitotech.event;
+
+// Порядок обработчиков событий после коммита. Сначала снимается L2-кэш Hibernate, затем
+// перестраиваются кэши приложения (они могут перечитать данные через Hibernate), и только потом
+// растут версии для ETag: клиент, увидевший новую версию, уже читает свежие данные
+public final class ListenerOrder {
+
+    public static final int ENTITY_CACHE = 0;
+    public static final int APPLICATION_CACHES = 100;
+    public static final int RESOURCE_VERSIONS = 200;
+
+    private ListenerOrder() {
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.avitotech.event;
+
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.Set;
+
+// Публикуется после переноса порции слитых PR в архив: ревьюверы, из входящих которых они пропали
+@Value
+public class PullRequestsArchivedEvent {
+    Set<String> reviewerIds;
+
+    public static PullRequestsArchivedEvent of(Collection<String> reviewerIds) {
+        return new PullRequestsArchivedEvent(Set.copyOf(reviewerIds));
+    }
+}
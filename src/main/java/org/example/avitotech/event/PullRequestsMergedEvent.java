@@ -0,0 +1,16 @@
+package org.example.avitotech.event;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+// Публикуется только для PR, которые были переведены в MERGED этой операцией
+@Value
+public class PullRequestsMergedEvent {
+    Map<String, List<String>> reviewersByPullRequest;
+
+    public static PullRequestsMergedEvent of(Map<String, List<String>> reviewersByPullRequest) {
+        return new PullRequestsMergedEvent(Map.copyOf(reviewersByPullRequest));
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.avitotech.event;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+// Назначения ревьюверов на PR: ключ - id PR, значение - добавленные или снятые ревьюверы.
+// created - PR из assigned созданы этой операцией, и assigned - все их ревьюверы
+@Value
+public class ReviewersChangedEvent {
+    Map<String, List<String>> assigned;
+    Map<String, List<String>> unassigned;
+    boolean created;
+
+    public static ReviewersChangedEvent created(Map<String, List<String>> assigned) {
+        return new ReviewersChangedEvent(Map.copyOf(assigned), Map.of(), true);
+    }
+
+    public static ReviewersChangedEvent of(Map<String, List<String>> assigned, Map<String, List<String>> unassigned) {
+        return new ReviewersChangedEvent(Map.copyOf(assigned), Map.copyOf(unassigned), false);
+    }
+
+    public static ReviewersChangedEvent reassigned(String pullRequestId, String oldReviewerId, String newReviewerId) {
+        return new ReviewersChangedEvent(
+                Map.of(pullRequestId, List.of(newReviewerId)),
+                Map.of(pullRequestId, List.of(oldReviewerId)),
+                false);
+    }
+}
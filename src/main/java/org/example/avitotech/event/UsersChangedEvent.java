@@ -0,0 +1,17 @@
+package org.example.avitotech.event;
+
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.Set;
+
+// Публикуется после любых изменений в таблице users: создание, активация, перенос между командами
+@Value
+public class UsersChangedEvent {
+    Set<String> userIds;
+    Set<String> teamNames;
+
+    public static UsersChangedEvent of(Collection<String> userIds, Collection<String> teamNames) {
+        return new UsersChangedEvent(Set.copyOf(userIds), Set.copyOf(teamNames));
+    }
+}
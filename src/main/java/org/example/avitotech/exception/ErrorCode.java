@@ -77,6 +77,13 @@ public enum ErrorCode {
             "Pull request is not in a valid state for this operation",
             422,
             ErrorCategory.CONFLICT
+    ),
+
+    BAD_REQUEST(
+            "BAD_REQUEST",
+            "Invalid request parameters",
+            400,
+            ErrorCategory.CLIENT_ERROR
     ),;
 
     private final String code;
@@ -123,6 +130,8 @@ public enum ErrorCode {
                 return "The specified user is not assigned as a reviewer to this PR";
             case NO_CANDIDATE:
                 return "No active team members available for reassignment. Activate more team members";
+            case BAD_REQUEST:
+                return "Check the request parameters against the API description";
             default:
                 return "Unknown error";
         }
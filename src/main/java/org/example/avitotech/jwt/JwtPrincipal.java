@@ -0,0 +1,13 @@
+package org.example.avitotech.jwt;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class JwtPrincipal {
+    String userId;
+    String role;
+    // null - в токене нет exp
+    Instant expiresAt;
+}
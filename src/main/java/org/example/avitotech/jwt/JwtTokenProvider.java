@@ -1,15 +1,26 @@
 package org.example.avitotech.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 
+@Slf4j
 @Component
 public class JwtTokenProvider {
 
@@ -19,52 +30,80 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
 
+    @Value("${jwt.principal-cache.max-size:10000}")
+    private long principalCacheMaxSize;
+
     private SecretKey key;
 
+    private JwtParser parser;
+
+    // Ключ кэша - SHA-256 от токена, сами токены в памяти не храним
+    private Cache<String, JwtPrincipal> verifiedPrincipals;
+
     @PostConstruct
     public void init() {
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedPrincipals = Caffeine.newBuilder()
+                .maximumSize(principalCacheMaxSize)
+                .expireAfter(new PrincipalExpiry())
+                .build();
     }
 
-    public boolean validateToken(String token) {
-        System.out.println("-------------------");
+    // Один разбор токена на запрос; проверенные токены живут в кэше до истечения срока действия
+    public JwtPrincipal verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String digest = digest(token);
+        JwtPrincipal cached = verifiedPrincipals.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            JwtPrincipal principal = new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    expiration != null ? expiration.toInstant() : null
+            );
+            // Токен без exp не истекает, и вытеснять его из кэша было бы не по чему - такие проверяются каждый раз
+            if (expiration != null) {
+                verifiedPrincipals.put(digest, principal);
+            }
+            return principal;
         } catch (SecurityException e) {
-            System.err.println("Invalid JWT signature: {}" + e);
+            log.debug("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: {}" + e);
+            log.debug("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            System.err.println("Expired JWT token: {}" + e);
+            log.debug("Expired JWT token: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            System.err.println("Unsupported JWT token: {}" + e);
-        } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: {}" + e);
+            log.debug("Unsupported JWT token: {}", e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWT token rejected: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
-    public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(key)
-                .parseClaimsJws(token)
-                .getBody();
+    public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
 
-        return (String) claims.get("role");
+    public String getRoleFromToken(String token) {
+        JwtPrincipal principal = verify(token);
+        return principal != null ? principal.getRole() : null;
     }
 
     public String getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(key)
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+        JwtPrincipal principal = verify(token);
+        return principal != null ? principal.getUserId() : null;
     }
 
     public String createAdminToken(String userId) {
@@ -82,13 +121,42 @@ public class JwtTokenProvider {
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", role);
 
+        // setClaims заменяет все claims целиком, поэтому subject выставляется после него
         return Jwts.builder()
-                .setSubject(userId)
                 .setClaims(claims)
+                .setSubject(userId)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(key, SignatureAlgorithm.HS512)
                 .compact();
     }
-}
 
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class PrincipalExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+            long remaining = Duration.between(Instant.now(), principal.getExpiresAt()).toNanos();
+            return Math.max(remaining, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.avitotech.logging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.logging.sampling")
+public class LogSamplingProperties {
+
+    // Доля запросов, для которых пишутся логи уровня INFO и ниже (WARN и ERROR пишутся всегда)
+    private double defaultRate = 1.0;
+
+    // Переопределение доли для конкретных эндпоинтов, ключ - путь запроса
+    private Map<String, Double> endpoints = new HashMap<>();
+
+    public double rateFor(String path) {
+        return endpoints.getOrDefault(path, defaultRate);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.avitotech.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Решение о сэмплировании принимается один раз на запрос, чтобы логи запроса
+// попадали в вывод целиком или не попадали совсем
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogSamplingFilter extends OncePerRequestFilter {
+
+    private final LogSamplingProperties properties;
+
+    public RequestLogSamplingFilter(LogSamplingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        double rate = properties.rateFor(request.getRequestURI());
+
+        if (rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        MDC.put(SampledLogTurboFilter.SAMPLED_OUT_KEY, "true");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(SampledLogTurboFilter.SAMPLED_OUT_KEY);
+        }
+    }
+}
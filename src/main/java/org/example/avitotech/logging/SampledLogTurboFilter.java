@@ -0,0 +1,23 @@
+package org.example.avitotech.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+// Отбрасывает INFO/DEBUG/TRACE для запросов, не попавших в выборку, ещё до создания события.
+// WARN и ERROR пропускаются всегда
+public class SampledLogTurboFilter extends TurboFilter {
+
+    public static final String SAMPLED_OUT_KEY = "log.sampledOut";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level != null && !level.isGreaterOrEqual(Level.WARN) && MDC.get(SAMPLED_OUT_KEY) != null) {
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
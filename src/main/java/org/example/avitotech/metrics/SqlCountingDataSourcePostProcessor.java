@@ -0,0 +1,18 @@
+package org.example.avitotech.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+public class SqlCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof SqlCountingDataSource)) {
+            return new SqlCountingDataSource(dataSource);
+        }
+        return bean;
+    }
+}
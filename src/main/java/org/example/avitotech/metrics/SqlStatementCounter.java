@@ -0,0 +1,47 @@
+package org.example.avitotech.metrics;
+
+import lombok.Getter;
+
+// Счётчик SQL-запросов и прочитанных строк текущего HTTP-запроса. Вне области start/stop
+// (фоновые задачи, инициализация) ничего не считается
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static void start() {
+        CURRENT.set(new Counts());
+    }
+
+    public static Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void statementExecuted() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+    }
+
+    static void rowRead() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.rows++;
+        }
+    }
+
+    @Getter
+    public static final class Counts {
+        private int statements;
+        private long rows;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.avitotech.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Число SQL-запросов и прочитанных строк на HTTP-запрос, с тегами uri и method как у http.server.requests
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_METRIC = "http.server.sql.statements";
+    public static final String ROWS_METRIC = "http.server.sql.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.Counts counts = SqlStatementCounter.stop();
+            // Путь берётся из шаблона маппинга, чтобы не плодить теги на неизвестные URL
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+            summary(STATEMENTS_METRIC, "SQL statements executed per request", uri, request.getMethod())
+                    .record(counts.getStatements());
+            summary(ROWS_METRIC, "Rows read from SQL result sets per request", uri, request.getMethod())
+                    .record(counts.getRows());
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String uri, String method) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
@@ -14,6 +14,7 @@ import java.util.List;
 @Builder
 public class PullRequest {
 
+    // Внешний id. Первичный ключ таблицы - pull_request_key, он генерируется БД и в сущности не нужен
     @Id
     @Column(name = "pull_request_id", nullable = false, unique = true)
     private String pullRequestId;
@@ -39,7 +40,8 @@ public class PullRequest {
     @Column(name = "merged_at")
     private LocalDateTime mergedAt;
 
-    @OneToMany(mappedBy = "pullRequest", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // Назначения хранятся по внутренним ключам и читаются через PullRequestJdbcRepository
+    @Transient
     @Builder.Default
     private List<AssignedReviewer> assignedReviewers = new ArrayList<>();
 
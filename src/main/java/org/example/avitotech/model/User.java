@@ -1,8 +1,12 @@
 package org.example.avitotech.model;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -10,6 +14,7 @@ import lombok.*;
 @Builder
 public class User {
 
+    // Внешний id. Первичный ключ таблицы - user_key, он генерируется БД и в сущности не нужен
     @Id
     @Column(name = "user_id", nullable = false, unique = true)
     private String userId;
@@ -0,0 +1,721 @@
+package org.example.avitotech.repository;
+
+import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.model.AssignedReviewer;
+import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.model.User;
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.example.avitotech.repository.UserJdbcRepository.varcharArray;
+
+// Пакетные операции над pull_requests и assigned_reviewers через JDBC batch
+@Repository
+public class PullRequestJdbcRepository {
+
+    // Слияние меняет статус PR и его копию в назначениях одним запросом. Основной SELECT видит
+    // назначения до UPDATE в WITH, но ревьюверы при слиянии не меняются
+    private static final String MERGE_OPEN_SQL =
+            "WITH merged AS (" +
+                    "  UPDATE pull_requests SET status = 'MERGED', merged_at = ? WHERE status = 'OPEN' AND %s " +
+                    "  RETURNING pull_request_key, pull_request_id, pull_request_name, author_id, status, created_at, merged_at" +
+                    "), merged_reviewers AS (" +
+                    "  UPDATE assigned_reviewers ar SET status = 'MERGED' FROM merged m WHERE ar.pull_request_key = m.pull_request_key" +
+                    ") " +
+                    "SELECT pr.pull_request_id, pr.pull_request_name, pr.author_id, pr.status, pr.created_at, pr.merged_at, " +
+                    "ARRAY(SELECT u.user_id FROM assigned_reviewers ar JOIN users u ON u.user_key = ar.user_key " +
+                    "WHERE ar.pull_request_key = pr.pull_request_key) AS reviewer_ids " +
+                    "FROM merged pr";
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private static final String REVIEWER_IDS_SQL =
+            "ARRAY(SELECT ru.user_id FROM assigned_reviewers ar2 JOIN users ru ON ru.user_key = ar2.user_key " +
+                    "WHERE ar2.pull_request_key = pr.pull_request_key) AS reviewer_ids";
+
+    private static final String ARCHIVED_REVIEWER_IDS_SQL =
+            "ARRAY(SELECT ru.user_id FROM archived_assigned_reviewers ar2 JOIN users ru ON ru.user_key = ar2.user_key " +
+                    "WHERE ar2.pull_request_key = pr.pull_request_key) AS reviewer_ids";
+
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PullRequestJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // id архивных PR тоже заняты: PR с тем же id заново не создаётся
+    public Set<String> findExistingIds(Collection<String> pullRequestIds) {
+        if (pullRequestIds.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(jdbcTemplate.query(
+                "SELECT pull_request_id FROM pull_requests WHERE pull_request_id = ANY(?) " +
+                        "UNION ALL " +
+                        "SELECT pull_request_id FROM archived_pull_requests WHERE pull_request_id = ANY(?)",
+                varcharArrayForBothTiers(pullRequestIds),
+                (rs, rowNum) -> rs.getString("pull_request_id")
+        ));
+    }
+
+    // Возвращает число вставленных строк для каждого PR: 0 - PR с таким id уже существует
+    public int[] insertPullRequests(List<PullRequest> pullRequests) {
+        if (pullRequests.isEmpty()) {
+            return new int[0];
+        }
+
+        return jdbcTemplate.batchUpdate(
+                "INSERT INTO pull_requests (pull_request_id, pull_request_name, author_id, status, created_at, merged_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (pull_request_id) DO NOTHING",
+                pullRequests.stream()
+                        .map(pr -> new Object[]{
+                                pr.getPullRequestId(),
+                                pr.getPullRequestName(),
+                                pr.getAuthorId(),
+                                pr.getStatus().name(),
+                                Timestamp.valueOf(pr.getCreatedAt()),
+                                pr.getMergedAt() != null ? Timestamp.valueOf(pr.getMergedAt()) : null
+                        })
+                        .toList()
+        );
+    }
+
+    // Внешние id переводятся в ключи тем же INSERT, статус и created_at копируются из PR;
+    // PR и пользователи должны существовать
+    public void insertReviewers(List<AssignedReviewer> reviewers) {
+        if (reviewers.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO assigned_reviewers (pull_request_key, user_key, status, created_at) " +
+                        "SELECT pr.pull_request_key, u.user_key, pr.status, pr.created_at FROM pull_requests pr, users u " +
+                        "WHERE pr.pull_request_id = ? AND u.user_id = ?",
+                reviewers.stream()
+                        .map(ar -> new Object[]{ar.getPullRequestId(), ar.getUserId()})
+                        .toList()
+        );
+    }
+
+    // PR вместе с ревьюверами и их командами одним запросом
+    public Optional<PullRequest> findWithReviewerTeams(String pullRequestId) {
+        String sql = "SELECT pr.pull_request_id, pr.pull_request_name, pr.author_id, pr.status, pr.created_at, pr.merged_at, " +
+                "u.user_id, u.team_name " +
+                "FROM pull_requests pr " +
+                "LEFT JOIN assigned_reviewers ar ON ar.pull_request_key = pr.pull_request_key " +
+                "LEFT JOIN users u ON u.user_key = ar.user_key " +
+                "WHERE pr.pull_request_id = ?";
+
+        return Optional.ofNullable(jdbcTemplate.query(sql, rs -> {
+            PullRequest pullRequest = null;
+            while (rs.next()) {
+                if (pullRequest == null) {
+                    pullRequest = mapPullRequest(rs);
+                }
+                String userId = rs.getString("user_id");
+                if (userId != null) {
+                    pullRequest.getAssignedReviewers().add(AssignedReviewer.builder()
+                            .pullRequestId(pullRequestId)
+                            .userId(userId)
+                            .user(User.builder().userId(userId).teamName(rs.getString("team_name")).build())
+                            .build());
+                }
+            }
+            return pullRequest;
+        }, pullRequestId));
+    }
+
+    // Заменяет ревьювера одной строкой; 0 - старый ревьювер уже снят или новый уже назначен
+    public int replaceReviewer(String pullRequestId, String oldReviewerId, String newReviewerId) {
+        return replaceReviewer(pullRequestId, oldReviewerId, newReviewerId, "");
+    }
+
+    // То же, но только у OPEN PR; 0 - ещё и если PR слили после чтения. Слияние меняет статус и в
+    // назначениях, а изменённую параллельно строку назначения UPDATE перепроверяет, поэтому условие
+    // на ar.status не пропускает слияние, закоммиченное во время ожидания блокировки
+    public int replaceOpenReviewer(String pullRequestId, String oldReviewerId, String newReviewerId) {
+        return replaceReviewer(pullRequestId, oldReviewerId, newReviewerId,
+                "AND pr.status = 'OPEN' AND ar.status = 'OPEN' ");
+    }
+
+    private int replaceReviewer(String pullRequestId, String oldReviewerId, String newReviewerId, String statusCondition) {
+        return jdbcTemplate.update(
+                "UPDATE assigned_reviewers ar SET user_key = nu.user_key " +
+                        "FROM pull_requests pr, users ou, users nu " +
+                        "WHERE pr.pull_request_id = ? AND ou.user_id = ? AND nu.user_id = ? " +
+                        "AND ar.pull_request_key = pr.pull_request_key AND ar.user_key = ou.user_key " +
+                        statusCondition +
+                        "AND NOT EXISTS (SELECT 1 FROM assigned_reviewers x " +
+                        "                WHERE x.pull_request_key = pr.pull_request_key AND x.user_key = nu.user_key)",
+                pullRequestId, oldReviewerId, newReviewerId
+        );
+    }
+
+    // Статус PR в рабочей таблице; пусто - PR нет или он уже в архиве
+    public Optional<PullRequestStatus> findStatus(String pullRequestId) {
+        return jdbcTemplate.query(
+                "SELECT status FROM pull_requests WHERE pull_request_id = ?",
+                (rs, rowNum) -> PullRequestStatus.valueOf(rs.getString("status")),
+                pullRequestId
+        ).stream().findFirst();
+    }
+
+    // Переводит OPEN PR в MERGED одним UPDATE и возвращает обновлённую строку вместе с ревьюверами.
+    // Пусто, если PR не найден или уже не в статусе OPEN
+    public Optional<PullRequest> mergeIfOpen(String pullRequestId, LocalDateTime mergedAt) {
+        return jdbcTemplate.query(
+                MERGE_OPEN_SQL.formatted("pull_request_id = ?"),
+                PullRequestJdbcRepository::mapPullRequestWithReviewers,
+                Timestamp.valueOf(mergedAt), pullRequestId
+        ).stream().findFirst();
+    }
+
+    // То же для набора PR одним UPDATE; возвращаются только PR, слитые этим запросом
+    public List<PullRequest> mergeAllIfOpen(Collection<String> pullRequestIds, LocalDateTime mergedAt) {
+        if (pullRequestIds.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(
+                MERGE_OPEN_SQL.formatted("pull_request_id = ANY(?)"),
+                ps -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(mergedAt));
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", pullRequestIds.toArray()));
+                },
+                PullRequestJdbcRepository::mapPullRequestWithReviewers
+        );
+    }
+
+    // pull_request_id -> merged_at (null для OPEN) для существующих PR, включая архивные
+    public Map<String, LocalDateTime> findMergedAt(Collection<String> pullRequestIds) {
+        Map<String, LocalDateTime> mergedAt = new HashMap<>();
+        if (pullRequestIds.isEmpty()) {
+            return mergedAt;
+        }
+
+        jdbcTemplate.query(
+                "SELECT pull_request_id, merged_at FROM pull_requests WHERE pull_request_id = ANY(?) " +
+                        "UNION ALL " +
+                        "SELECT pull_request_id, merged_at FROM archived_pull_requests WHERE pull_request_id = ANY(?)",
+                varcharArrayForBothTiers(pullRequestIds),
+                rs -> {
+                    Timestamp timestamp = rs.getTimestamp("merged_at");
+                    mergedAt.put(rs.getString("pull_request_id"), timestamp != null ? timestamp.toLocalDateTime() : null);
+                }
+        );
+        return mergedAt;
+    }
+
+    // Архивный PR вместе с ревьюверами
+    public Optional<PullRequest> findArchived(String pullRequestId) {
+        return jdbcTemplate.query(
+                "SELECT pr.pull_request_id, pr.pull_request_name, pr.author_id, pr.status, pr.created_at, pr.merged_at, " +
+                        ARCHIVED_REVIEWER_IDS_SQL + " " +
+                        "FROM archived_pull_requests pr WHERE pr.pull_request_id = ?",
+                PullRequestJdbcRepository::mapPullRequestWithReviewers,
+                pullRequestId
+        ).stream().findFirst();
+    }
+
+    // Переносит в архив до limit PR, слитых раньше mergedBefore, вместе с назначениями - одним
+    // запросом, то есть одной транзакцией. Строки берутся с SKIP LOCKED, так что задания на разных
+    // экземплярах разбирают разные PR. Возвращает число перенесённых PR и их ревьюверов
+    public ArchivedBatch archiveMergedBefore(LocalDateTime mergedBefore, int limit) {
+        String sql = "WITH batch AS (" +
+                "  SELECT pull_request_key FROM pull_requests " +
+                "  WHERE status = 'MERGED' AND merged_at < ? " +
+                "  ORDER BY merged_at LIMIT ? " +
+                "  FOR UPDATE SKIP LOCKED" +
+                "), moved_reviewers AS (" +
+                "  DELETE FROM assigned_reviewers ar USING batch b WHERE ar.pull_request_key = b.pull_request_key " +
+                "  RETURNING ar.pull_request_key, ar.user_key, ar.created_at" +
+                "), moved AS (" +
+                "  DELETE FROM pull_requests pr USING batch b WHERE pr.pull_request_key = b.pull_request_key " +
+                "  RETURNING pr.pull_request_key, pr.pull_request_id, pr.pull_request_name, pr.author_id, pr.status, " +
+                "            pr.created_at, pr.merged_at" +
+                "), archived AS (" +
+                "  INSERT INTO archived_pull_requests (pull_request_key, pull_request_id, pull_request_name, author_id, " +
+                "                                      status, created_at, merged_at, archived_at) " +
+                "  SELECT pull_request_key, pull_request_id, pull_request_name, author_id, status, created_at, merged_at, now() " +
+                "  FROM moved " +
+                "  RETURNING pull_request_key" +
+                "), archived_reviewers AS (" +
+                "  INSERT INTO archived_assigned_reviewers (pull_request_key, user_key, created_at) " +
+                "  SELECT pull_request_key, user_key, created_at FROM moved_reviewers " +
+                "  RETURNING user_key" +
+                ") " +
+                "SELECT (SELECT COUNT(*) FROM archived) AS pull_requests, " +
+                "ARRAY(SELECT DISTINCT u.user_id FROM archived_reviewers r JOIN users u ON u.user_key = r.user_key) AS reviewer_ids";
+
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new ArchivedBatch(
+                rs.getInt("pull_requests"),
+                List.of((String[]) rs.getArray("reviewer_ids").getArray())
+        ), Timestamp.valueOf(mergedBefore), limit);
+    }
+
+    // Страница входящих ревью пользователя по убыванию (created_at, pull_request_id), начиная после
+    // (afterCreatedAt, afterPullRequestId); status и after* могут быть null. Запрос идёт от users,
+    // поэтому существование пользователя проверяется тем же запросом: пусто - пользователя нет.
+    // Для каждого статуса не больше limit назначений берётся диапазоном индекса (user_key, status, created_at),
+    // страницы статусов сливаются; с includeArchived к ним добавляется страница архива (там только MERGED)
+    // по (user_key, created_at). Время страницы не зависит от истории ревьювера.
+    // Строки сразу маппятся в PullRequestResponse, сущности и persistence context не участвуют
+    public Optional<List<PullRequestResponse>> findReviewInbox(String userId, PullRequestStatus status,
+                                                               LocalDateTime afterCreatedAt, String afterPullRequestId,
+                                                               int limit, boolean includeArchived) {
+        StringBuilder sql = new StringBuilder("SELECT page.* FROM users u LEFT JOIN LATERAL (");
+        List<Object> args = new ArrayList<>();
+
+        List<PullRequestStatus> statuses = status != null ? List.of(status) : List.of(PullRequestStatus.values());
+        for (PullRequestStatus pageStatus : statuses) {
+            if (pageStatus != statuses.get(0)) {
+                sql.append(" UNION ALL ");
+            }
+            appendInboxPage(sql, args, "assigned_reviewers", "pull_requests", REVIEWER_IDS_SQL,
+                    pageStatus, afterCreatedAt, afterPullRequestId, limit);
+        }
+        if (includeArchived && statuses.contains(PullRequestStatus.MERGED)) {
+            sql.append(" UNION ALL ");
+            appendInboxPage(sql, args, "archived_assigned_reviewers", "archived_pull_requests", ARCHIVED_REVIEWER_IDS_SQL,
+                    null, afterCreatedAt, afterPullRequestId, limit);
+        }
+        sql.append(") page ON true " +
+                "WHERE u.user_id = ? " +
+                "ORDER BY page.created_at DESC, page.pull_request_id DESC LIMIT ?");
+        args.add(userId);
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), rs -> {
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            List<PullRequestResponse> page = new ArrayList<>();
+            do {
+                if (rs.getString("pull_request_id") != null) {
+                    page.add(mapPullRequestResponse(rs));
+                }
+            } while (rs.next());
+            return Optional.of(page);
+        }, args.toArray());
+    }
+
+    // status = null - в таблице назначений нет статуса (архив). Назначения идут по индексу в порядке
+    // created_at, и внутри одного created_at досортировываются по pull_request_id (incremental sort),
+    // поэтому читается не больше limit назначений и равных им по created_at
+    private static void appendInboxPage(StringBuilder sql, List<Object> args, String reviewersTable, String pullRequestsTable,
+                                        String reviewerIdsSql, PullRequestStatus status,
+                                        LocalDateTime afterCreatedAt, String afterPullRequestId, int limit) {
+        sql.append("(SELECT pr.pull_request_id, pr.pull_request_name, pr.author_id, pr.status, pr.created_at, pr.merged_at, ")
+                .append(reviewerIdsSql)
+                .append(" FROM ").append(reviewersTable).append(" ar")
+                .append(" JOIN ").append(pullRequestsTable).append(" pr ON pr.pull_request_key = ar.pull_request_key")
+                .append(" WHERE ar.user_key = u.user_key");
+        if (status != null) {
+            sql.append(" AND ar.status = ?");
+            args.add(status.name());
+        }
+        if (afterCreatedAt != null) {
+            sql.append(" AND ar.created_at <= ? AND (pr.created_at, pr.pull_request_id) < (?, ?)");
+            args.add(Timestamp.valueOf(afterCreatedAt));
+            args.add(Timestamp.valueOf(afterCreatedAt));
+            args.add(afterPullRequestId);
+        }
+        sql.append(" ORDER BY ar.created_at DESC, pr.pull_request_id DESC LIMIT ?)");
+        args.add(limit);
+    }
+
+    // Страница поиска по убыванию (created_at, pull_request_id), начиная после (afterCreatedAt, afterPullRequestId).
+    // Без ревьювера для каждого сочетания статуса и автора (автор из фильтра или все участники команды)
+    // берётся не больше limit ключей диапазоном по индексу (author_id, status, created_at, pull_request_id)
+    // или (status, created_at, pull_request_id) - index only scan, - и ключи сливаются. С ревьювером
+    // так же для каждого статуса берётся не больше limit подходящих назначений диапазоном индекса
+    // (user_key, status, created_at), в архиве - (user_key, created_at), как во входящих; фильтры автора
+    // и команды проверяются на этих назначениях, и время не зависит от истории ревьювера.
+    // Строки PR и ревьюверы читаются только для ключей итоговой страницы.
+    // С includeArchived та же страница архива (там только MERGED) сливается со страницей рабочих таблиц
+    public List<PullRequestResponse> searchPullRequests(SearchFilter filter, LocalDateTime afterCreatedAt,
+                                                        String afterPullRequestId, int limit) {
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+
+        List<PullRequestStatus> statuses = filter.getStatus() != null
+                ? List.of(filter.getStatus())
+                : List.of(PullRequestStatus.values());
+        appendSearchPage(sql, args, "assigned_reviewers", "pull_requests", REVIEWER_IDS_SQL, false,
+                statuses, filter, afterCreatedAt, afterPullRequestId, limit);
+        if (filter.isIncludeArchived() && statuses.contains(PullRequestStatus.MERGED)) {
+            sql.insert(0, "SELECT * FROM (").append(" UNION ALL ");
+            appendSearchPage(sql, args, "archived_assigned_reviewers", "archived_pull_requests", ARCHIVED_REVIEWER_IDS_SQL,
+                    true, List.of(PullRequestStatus.MERGED), filter, afterCreatedAt, afterPullRequestId, limit);
+            sql.append(") page ORDER BY page.created_at DESC, page.pull_request_id DESC LIMIT ?");
+            args.add(limit);
+        }
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapPullRequestResponse(rs), args.toArray());
+    }
+
+    private static void appendSearchPage(StringBuilder sql, List<Object> args, String reviewersTable, String pullRequestsTable,
+                                         String reviewerIdsSql, boolean archive, List<PullRequestStatus> statuses,
+                                         SearchFilter filter, LocalDateTime afterCreatedAt, String afterPullRequestId,
+                                         int limit) {
+        sql.append("(SELECT pr.pull_request_id, pr.pull_request_name, pr.author_id, pr.status, pr.created_at, pr.merged_at, ")
+                .append(reviewerIdsSql)
+                .append(" FROM (");
+
+        if (filter.getReviewerId() != null) {
+            sql.append("SELECT k.pull_request_id, k.created_at FROM users ru");
+            if (!archive) {
+                sql.append(" CROSS JOIN (VALUES ")
+                        .append(String.join(", ", statuses.stream().map(status -> "('" + status.name() + "')").toList()))
+                        .append(") s(status)");
+            }
+            sql.append(" CROSS JOIN LATERAL (SELECT p.pull_request_id, p.created_at FROM ").append(reviewersTable)
+                    .append(" ar JOIN ").append(pullRequestsTable).append(" p ON p.pull_request_key = ar.pull_request_key");
+            if (filter.getTeamName() != null) {
+                sql.append(" JOIN users au ON au.user_id = p.author_id AND au.team_name = ?");
+                args.add(filter.getTeamName());
+            }
+            sql.append(" WHERE ar.user_key = ru.user_key");
+            if (!archive) {
+                sql.append(" AND ar.status = s.status");
+            }
+            if (filter.getAuthorId() != null) {
+                sql.append(" AND p.author_id = ?");
+                args.add(filter.getAuthorId());
+            }
+            if (filter.getCreatedFrom() != null) {
+                sql.append(" AND ar.created_at >= ?");
+                args.add(Timestamp.valueOf(filter.getCreatedFrom()));
+            }
+            if (filter.getCreatedTo() != null) {
+                sql.append(" AND ar.created_at < ?");
+                args.add(Timestamp.valueOf(filter.getCreatedTo()));
+            }
+            if (afterCreatedAt != null) {
+                sql.append(" AND ar.created_at <= ? AND (p.created_at, p.pull_request_id) < (?, ?)");
+                args.add(Timestamp.valueOf(afterCreatedAt));
+                args.add(Timestamp.valueOf(afterCreatedAt));
+                args.add(afterPullRequestId);
+            }
+            sql.append(" ORDER BY ar.created_at DESC, p.pull_request_id DESC LIMIT ?) k" +
+                    " WHERE ru.user_id = ?" +
+                    " ORDER BY k.created_at DESC, k.pull_request_id DESC LIMIT ?");
+            args.add(limit);
+            args.add(filter.getReviewerId());
+        } else {
+            sql.append("SELECT k.pull_request_id, k.created_at FROM (VALUES ")
+                    .append(String.join(", ", statuses.stream().map(status -> "('" + status.name() + "')").toList()))
+                    .append(") s(status)");
+
+            boolean byAuthor = filter.getAuthorId() != null || filter.getTeamName() != null;
+            if (byAuthor) {
+                sql.append(" CROSS JOIN (SELECT user_id FROM users WHERE true");
+                if (filter.getAuthorId() != null) {
+                    sql.append(" AND user_id = ?");
+                    args.add(filter.getAuthorId());
+                }
+                if (filter.getTeamName() != null) {
+                    sql.append(" AND team_name = ?");
+                    args.add(filter.getTeamName());
+                }
+                sql.append(") a");
+            }
+
+            sql.append(" CROSS JOIN LATERAL (SELECT p.pull_request_id, p.created_at FROM ").append(pullRequestsTable)
+                    .append(" p WHERE p.status = s.status");
+            if (byAuthor) {
+                sql.append(" AND p.author_id = a.user_id");
+            }
+            appendCreatedAtRange(sql, args, "p", filter, afterCreatedAt, afterPullRequestId);
+            sql.append(" ORDER BY p.created_at DESC, p.pull_request_id DESC LIMIT ?) k" +
+                    " ORDER BY k.created_at DESC, k.pull_request_id DESC LIMIT ?");
+            args.add(limit);
+        }
+        args.add(limit);
+
+        sql.append(") page JOIN ").append(pullRequestsTable).append(" pr ON pr.pull_request_id = page.pull_request_id " +
+                "ORDER BY pr.created_at DESC, pr.pull_request_id DESC)");
+    }
+
+    private static void appendCreatedAtRange(StringBuilder sql, List<Object> args, String alias, SearchFilter filter,
+                                             LocalDateTime afterCreatedAt, String afterPullRequestId) {
+        if (filter.getCreatedFrom() != null) {
+            sql.append(" AND ").append(alias).append(".created_at >= ?");
+            args.add(Timestamp.valueOf(filter.getCreatedFrom()));
+        }
+        if (filter.getCreatedTo() != null) {
+            sql.append(" AND ").append(alias).append(".created_at < ?");
+            args.add(Timestamp.valueOf(filter.getCreatedTo()));
+        }
+        if (afterCreatedAt != null) {
+            sql.append(" AND (").append(alias).append(".created_at, ").append(alias).append(".pull_request_id) < (?, ?)");
+            args.add(Timestamp.valueOf(afterCreatedAt));
+            args.add(afterPullRequestId);
+        }
+    }
+
+    // Все PR по фильтру через серверный курсор: в памяти драйвера не больше EXPORT_FETCH_SIZE строк.
+    // Вызывать только в транзакции - при autocommit драйвер PostgreSQL игнорирует fetch size
+    // и читает весь результат сразу. Порядок строк не задан, чтобы не сортировать всю таблицу;
+    // с includeArchived к рабочим таблицам добавляется архив
+    public void streamPullRequests(PullRequestStatus status, LocalDateTime createdFrom, LocalDateTime createdTo,
+                                   boolean includeArchived, Consumer<PullRequestResponse> consumer) {
+        StringBuilder sql = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+
+        appendExportQuery(sql, args, "pull_requests", REVIEWER_IDS_SQL, status, createdFrom, createdTo);
+        if (includeArchived && status != PullRequestStatus.OPEN) {
+            sql.append(" UNION ALL ");
+            appendExportQuery(sql, args, "archived_pull_requests", ARCHIVED_REVIEWER_IDS_SQL, status, createdFrom, createdTo);
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapPullRequestResponse(rs)));
+    }
+
+    private static void appendExportQuery(StringBuilder sql, List<Object> args, String pullRequestsTable, String reviewerIdsSql,
+                                          PullRequestStatus status, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        sql.append("SELECT pr.pull_request_id, pr.pull_request_name, pr.author_id, pr.status, pr.created_at, pr.merged_at, ")
+                .append(reviewerIdsSql)
+                .append(" FROM ").append(pullRequestsTable).append(" pr WHERE true");
+        if (status != null) {
+            sql.append(" AND pr.status = ?");
+            args.add(status.name());
+        }
+        if (createdFrom != null) {
+            sql.append(" AND pr.created_at >= ?");
+            args.add(Timestamp.valueOf(createdFrom));
+        }
+        if (createdTo != null) {
+            sql.append(" AND pr.created_at < ?");
+            args.add(Timestamp.valueOf(createdTo));
+        }
+    }
+
+    // Страница PR после afterPullRequestId (по возрастанию id) со статусом и числом ревьюверов,
+    // рабочие таблицы и архив вместе. Первая страница - afterPullRequestId = ""
+    public List<PullRequestReviewerCount> findReviewerCountPage(String afterPullRequestId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT * FROM (" +
+                        "  (SELECT pr.pull_request_id, pr.status, " +
+                        "   (SELECT COUNT(*) FROM assigned_reviewers ar WHERE ar.pull_request_key = pr.pull_request_key) AS reviewer_count " +
+                        "   FROM pull_requests pr WHERE pr.pull_request_id > ? ORDER BY pr.pull_request_id LIMIT ?) " +
+                        "  UNION ALL " +
+                        "  (SELECT pr.pull_request_id, pr.status, " +
+                        "   (SELECT COUNT(*) FROM archived_assigned_reviewers ar WHERE ar.pull_request_key = pr.pull_request_key) AS reviewer_count " +
+                        "   FROM archived_pull_requests pr WHERE pr.pull_request_id > ? ORDER BY pr.pull_request_id LIMIT ?)" +
+                        ") page " +
+                        "ORDER BY pull_request_id " +
+                        "LIMIT ?",
+                PullRequestJdbcRepository::mapReviewerCount,
+                afterPullRequestId, limit, afterPullRequestId, limit, limit
+        );
+    }
+
+    // Статус и число ревьюверов одного PR из рабочих таблиц или архива
+    public Optional<PullRequestReviewerCount> findReviewerCount(String pullRequestId) {
+        return jdbcTemplate.query(
+                "SELECT pr.pull_request_id, pr.status, " +
+                        "(SELECT COUNT(*) FROM assigned_reviewers ar WHERE ar.pull_request_key = pr.pull_request_key) AS reviewer_count " +
+                        "FROM pull_requests pr WHERE pr.pull_request_id = ? " +
+                        "UNION ALL " +
+                        "SELECT pr.pull_request_id, pr.status, " +
+                        "(SELECT COUNT(*) FROM archived_assigned_reviewers ar WHERE ar.pull_request_key = pr.pull_request_key) AS reviewer_count " +
+                        "FROM archived_pull_requests pr WHERE pr.pull_request_id = ?",
+                PullRequestJdbcRepository::mapReviewerCount,
+                pullRequestId, pullRequestId
+        ).stream().findFirst();
+    }
+
+    private static PullRequestReviewerCount mapReviewerCount(ResultSet rs, int rowNum) throws SQLException {
+        return new PullRequestReviewerCount(
+                rs.getString("pull_request_id"),
+                PullRequestStatus.valueOf(rs.getString("status")),
+                rs.getInt("reviewer_count")
+        );
+    }
+
+    // Переназначает OPEN ревью указанных пользователей на активных участников их команд одним запросом.
+    // Кандидаты команды упорядочены по числу открытых ревью, и ревью раздаются по кругу начиная
+    // с наименее загруженного. Ревью одного PR из одной команды занимают соседние позиции и разбираются
+    // вместе: автор PR и уже назначенные ревьюверы пропускаются, k-е ревью получает k-го из оставшихся
+    // по кругу кандидатов, поэтому кандидаты у ревью одного PR разные. Пропущенных позиций не больше,
+    // чем ревьюверов PR и автора, поэтому пробуется столько позиций сверх числа ревью (но не больше
+    // размера команды). Ревью без подходящего кандидата остаются на прежнем ревьювере (newReviewerId = null)
+    public List<ReviewerReplacement> reassignOpenReviews(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        // MATERIALIZED обязателен: без него планировщик встраивает подсчёт нагрузки в каждую строку affected,
+        // а позицию кандидата проверяет фильтром вместо ключа hash join
+        String sql = "WITH affected AS (" +
+                "  SELECT ar.pull_request_key, pr.pull_request_id, ar.user_key AS old_user_key, u.user_id AS old_user_id, " +
+                "         u.team_name, pr.author_id, " +
+                "         ROW_NUMBER() OVER (PARTITION BY u.team_name ORDER BY pr.pull_request_id, u.user_id) - 1 AS rn, " +
+                "         ROW_NUMBER() OVER (PARTITION BY ar.pull_request_key, u.team_name ORDER BY u.user_id) - 1 AS k " +
+                "  FROM users u " +
+                "  JOIN assigned_reviewers ar ON ar.user_key = u.user_key " +
+                "  JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key AND pr.status = 'OPEN' " +
+                "  WHERE u.user_id = ANY(?)" +
+                "), candidates AS MATERIALIZED (" +
+                "  SELECT u.user_key, u.user_id, u.team_name, " +
+                "         ROW_NUMBER() OVER (PARTITION BY u.team_name ORDER BY COUNT(pr.pull_request_key), u.user_id) - 1 AS pos " +
+                "  FROM users u " +
+                "  LEFT JOIN assigned_reviewers ar ON ar.user_key = u.user_key " +
+                "  LEFT JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key AND pr.status = 'OPEN' " +
+                "  WHERE u.is_active = true AND u.team_name IN (SELECT team_name FROM affected) " +
+                "  GROUP BY u.user_key, u.user_id, u.team_name" +
+                "), team_sizes AS (" +
+                "  SELECT team_name, COUNT(*) AS team_size FROM candidates GROUP BY team_name" +
+                "), current_reviewers AS MATERIALIZED (" +
+                "  SELECT ar.pull_request_key, ar.user_key FROM assigned_reviewers ar " +
+                "  WHERE ar.pull_request_key IN (SELECT pull_request_key FROM affected)" +
+                "), pull_request_groups AS (" +
+                "  SELECT a.pull_request_key, a.team_name, a.author_id, MIN(a.rn) AS base, " +
+                "         COUNT(*) + 1 + (SELECT COUNT(*) FROM current_reviewers x " +
+                "                         WHERE x.pull_request_key = a.pull_request_key) AS window_size " +
+                "  FROM affected a GROUP BY a.pull_request_key, a.team_name, a.author_id" +
+                "), slots AS MATERIALIZED (" +
+                "  SELECT g.pull_request_key, g.team_name, g.author_id, step.n, (g.base + step.n) % ts.team_size AS pos " +
+                "  FROM pull_request_groups g " +
+                "  JOIN team_sizes ts ON ts.team_name = g.team_name " +
+                "  CROSS JOIN LATERAL generate_series(0, LEAST(g.window_size, ts.team_size) - 1) AS step(n)" +
+                "), free_candidates AS (" +
+                "  SELECT s.pull_request_key, s.team_name, c.user_key AS new_user_key, c.user_id AS new_user_id, " +
+                "         ROW_NUMBER() OVER (PARTITION BY s.pull_request_key, s.team_name ORDER BY s.n) - 1 AS k " +
+                "  FROM slots s " +
+                "  JOIN candidates c ON c.team_name = s.team_name AND c.pos = s.pos " +
+                "  WHERE c.user_id <> s.author_id " +
+                "    AND NOT EXISTS (SELECT 1 FROM current_reviewers x " +
+                "                    WHERE x.pull_request_key = s.pull_request_key AND x.user_key = c.user_key)" +
+                "), picked AS (" +
+                "  SELECT a.pull_request_key, a.old_user_key, f.new_user_key, f.new_user_id " +
+                "  FROM affected a " +
+                "  JOIN free_candidates f ON f.pull_request_key = a.pull_request_key AND f.team_name = a.team_name AND f.k = a.k" +
+                "), replaced AS (" +
+                "  UPDATE assigned_reviewers ar SET user_key = p.new_user_key " +
+                "  FROM picked p " +
+                "  WHERE ar.pull_request_key = p.pull_request_key AND ar.user_key = p.old_user_key " +
+                "  RETURNING ar.pull_request_key, p.old_user_key, p.new_user_id" +
+                ") " +
+                "SELECT a.pull_request_id, a.old_user_id, r.new_user_id " +
+                "FROM affected a " +
+                "LEFT JOIN replaced r ON r.pull_request_key = a.pull_request_key AND r.old_user_key = a.old_user_key";
+
+        return jdbcTemplate.query(sql, varcharArray(userIds), (rs, rowNum) -> new ReviewerReplacement(
+                rs.getString("pull_request_id"),
+                rs.getString("old_user_id"),
+                rs.getString("new_user_id")
+        ));
+    }
+
+    // Один и тот же массив id для запроса к рабочей таблице и к архиву
+    private static PreparedStatementSetter varcharArrayForBothTiers(Collection<String> values) {
+        return ps -> {
+            Array array = ps.getConnection().createArrayOf("varchar", values.toArray());
+            ps.setArray(1, array);
+            ps.setArray(2, array);
+        };
+    }
+
+    private static PullRequest mapPullRequestWithReviewers(ResultSet rs, int rowNum) throws SQLException {
+        PullRequest pullRequest = mapPullRequest(rs);
+        for (String userId : (String[]) rs.getArray("reviewer_ids").getArray()) {
+            pullRequest.getAssignedReviewers().add(AssignedReviewer.builder()
+                    .pullRequestId(pullRequest.getPullRequestId())
+                    .userId(userId)
+                    .build());
+        }
+        return pullRequest;
+    }
+
+    private static PullRequestResponse mapPullRequestResponse(ResultSet rs) throws SQLException {
+        Timestamp mergedAt = rs.getTimestamp("merged_at");
+        return PullRequestResponse.builder()
+                .prId(rs.getString("pull_request_id"))
+                .prName(rs.getString("pull_request_name"))
+                .authorId(rs.getString("author_id"))
+                .status(rs.getString("status"))
+                .reviewers(List.of((String[]) rs.getArray("reviewer_ids").getArray()))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .mergedAt(mergedAt != null ? mergedAt.toLocalDateTime() : null)
+                .build();
+    }
+
+    private static PullRequest mapPullRequest(ResultSet rs) throws SQLException {
+        Timestamp mergedAt = rs.getTimestamp("merged_at");
+        return PullRequest.builder()
+                .pullRequestId(rs.getString("pull_request_id"))
+                .pullRequestName(rs.getString("pull_request_name"))
+                .authorId(rs.getString("author_id"))
+                .status(PullRequestStatus.valueOf(rs.getString("status")))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .mergedAt(mergedAt != null ? mergedAt.toLocalDateTime() : null)
+                .assignedReviewers(new ArrayList<>())
+                .build();
+    }
+
+    @Value
+    public static class ReviewerReplacement {
+        String pullRequestId;
+        String oldReviewerId;
+        String newReviewerId;
+    }
+
+    @Value
+    public static class ArchivedBatch {
+        int pullRequests;
+        List<String> reviewerIds;
+    }
+
+    @Value
+    public static class PullRequestReviewerCount {
+        String pullRequestId;
+        PullRequestStatus status;
+        int reviewerCount;
+    }
+
+    // Фильтры поиска PR; null - без фильтра. Команда - команда автора, created_to не включительно
+    @Value
+    @Builder
+    public static class SearchFilter {
+        String teamName;
+        String authorId;
+        String reviewerId;
+        PullRequestStatus status;
+        LocalDateTime createdFrom;
+        LocalDateTime createdTo;
+        // Слитые PR, перенесённые в архив
+        boolean includeArchived;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.avitotech.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Множественные операции над teams одним пакетом, в обход persistence context
+@Repository
+public class TeamJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TeamJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Возвращает число созданных команд; существующие не меняются
+    public int insertMissingTeams(Collection<String> teamNames) {
+        if (teamNames.isEmpty()) {
+            return 0;
+        }
+
+        return Arrays.stream(jdbcTemplate.batchUpdate(
+                "INSERT INTO teams (team_name) VALUES (?) ON CONFLICT (team_name) DO NOTHING",
+                teamNames.stream()
+                        .map(teamName -> new Object[]{teamName})
+                        .toList()
+        )).sum();
+    }
+
+    // Создаёт команду, если её нет, и блокирует её строку до конца транзакции: изменения состава
+    // одной команды идут по очереди. Существующая строка не перезаписывается (WHERE false), но
+    // ON CONFLICT блокирует её до проверки условия. Возвращает true, если команда создана
+    public boolean createOrLockTeam(String teamName) {
+        return jdbcTemplate.update(
+                "INSERT INTO teams (team_name) VALUES (?) " +
+                        "ON CONFLICT (team_name) DO UPDATE SET team_name = EXCLUDED.team_name WHERE false",
+                teamName
+        ) > 0;
+    }
+}
@@ -2,7 +2,10 @@ package org.example.avitotech.repository;
 
 import org.example.avitotech.model.Team;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -15,5 +18,6 @@ public interface TeamRepository extends JpaRepository<Team, String> {
     boolean existsByTeamName(String teamName);
 
     @Query("SELECT t FROM Team t LEFT JOIN FETCH t.members WHERE t.teamName = :teamName")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Team> findByTeamNameWithMembers(@Param("teamName") String teamName);
 }
\ No newline at end of file
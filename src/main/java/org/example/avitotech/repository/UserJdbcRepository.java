@@ -0,0 +1,168 @@
+package org.example.avitotech.repository;
+
+import lombok.Value;
+import org.example.avitotech.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Множественные операции над users одним запросом, в обход persistence context
+@Repository
+public class UserJdbcRepository {
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (rs, rowNum) -> User.builder()
+            .userId(rs.getString("user_id"))
+            .username(rs.getString("username"))
+            .teamName(rs.getString("team_name"))
+            .isActive(rs.getBoolean("is_active"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Map<String, User> findByUserIds(Collection<String> userIds) {
+        Map<String, User> users = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+
+        jdbcTemplate.query(
+                "SELECT user_id, username, team_name, is_active FROM users WHERE user_id = ANY(?)",
+                varcharArray(userIds),
+                USER_ROW_MAPPER
+        ).forEach(user -> users.put(user.getUserId(), user));
+        return users;
+    }
+
+    // Участники команды и указанные пользователи из других команд
+    public Map<String, User> findTeamMembersAndUsers(String teamName, Collection<String> userIds) {
+        Map<String, User> users = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT user_id, username, team_name, is_active FROM users " +
+                        "WHERE team_name = ? OR user_id = ANY(?)",
+                ps -> {
+                    ps.setString(1, teamName);
+                    ps.setArray(2, ps.getConnection().createArrayOf("varchar", userIds.toArray()));
+                },
+                USER_ROW_MAPPER
+        ).forEach(user -> users.put(user.getUserId(), user));
+        return users;
+    }
+
+    // Новые пользователи создаются, у существующих обновляются имя, команда и активность
+    public void upsertUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, ?) " +
+                        "ON CONFLICT (user_id) DO UPDATE SET username = EXCLUDED.username, " +
+                        "team_name = EXCLUDED.team_name, is_active = EXCLUDED.is_active",
+                users.stream()
+                        .map(user -> new Object[]{
+                                user.getUserId(),
+                                user.getUsername(),
+                                user.getTeamName(),
+                                user.getIsActive()
+                        })
+                        .toList()
+        );
+    }
+
+    // Открытые ревью активных участников команды: user_id -> число OPEN PR, где он ревьювер
+    public Map<String, Integer> findActiveMemberOpenReviewCounts(String teamName) {
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT u.user_id, COUNT(pr.pull_request_key) AS open_reviews " +
+                        "FROM users u " +
+                        "LEFT JOIN assigned_reviewers ar ON ar.user_key = u.user_key " +
+                        "LEFT JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key AND pr.status = 'OPEN' " +
+                        "WHERE u.team_name = ? AND u.is_active = true " +
+                        "GROUP BY u.user_id",
+                rs -> {
+                    counts.put(rs.getString("user_id"), rs.getInt("open_reviews"));
+                },
+                teamName
+        );
+        return counts;
+    }
+
+    // Страница пользователей после afterUserId (по возрастанию user_id) с числом назначений:
+    // всего, включая архив, и на OPEN PR. Первая страница - afterUserId = ""
+    public List<ReviewerStats> findReviewerStatsPage(String afterUserId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT u.user_id, u.team_name, COUNT(ar.pull_request_key) " +
+                        "+ (SELECT COUNT(*) FROM archived_assigned_reviewers aar WHERE aar.user_key = u.user_key) AS assignments, " +
+                        "COUNT(pr.pull_request_key) AS open_reviews " +
+                        "FROM (SELECT user_key, user_id, team_name FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?) u " +
+                        "LEFT JOIN assigned_reviewers ar ON ar.user_key = u.user_key " +
+                        "LEFT JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key AND pr.status = 'OPEN' " +
+                        "GROUP BY u.user_key, u.user_id, u.team_name " +
+                        "ORDER BY u.user_id",
+                (rs, rowNum) -> new ReviewerStats(
+                        rs.getString("user_id"),
+                        rs.getString("team_name"),
+                        rs.getLong("assignments"),
+                        rs.getLong("open_reviews")
+                ),
+                afterUserId, limit
+        );
+    }
+
+    // Деактивирует пользователей и возвращает user_id -> team_name для найденных
+    public Map<String, String> deactivateByUserIds(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return deactivate("user_id = ANY(?)", varcharArray(userIds));
+    }
+
+    // Только тех, кто ещё в команде: пользователя могли перенести в другую команду параллельно
+    public Map<String, String> deactivateTeamMembers(String teamName, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return deactivate("team_name = ? AND user_id = ANY(?)", ps -> {
+            ps.setString(1, teamName);
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", userIds.toArray()));
+        });
+    }
+
+    public Map<String, String> deactivateTeam(String teamName) {
+        return deactivate("team_name = ?", ps -> ps.setString(1, teamName));
+    }
+
+    private Map<String, String> deactivate(String condition, PreparedStatementSetter parameters) {
+        Map<String, String> teams = new HashMap<>();
+        jdbcTemplate.query(
+                "UPDATE users SET is_active = false WHERE " + condition + " RETURNING user_id, team_name",
+                parameters,
+                rs -> {
+                    teams.put(rs.getString("user_id"), rs.getString("team_name"));
+                }
+        );
+        return teams;
+    }
+
+    static PreparedStatementSetter varcharArray(Collection<String> values) {
+        return ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", values.toArray()));
+    }
+
+    @Value
+    public static class ReviewerStats {
+        String userId;
+        String teamName;
+        long assignments;
+        long openReviews;
+    }
+}
@@ -1,16 +1,21 @@
 package org.example.avitotech.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.avitotech.model.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, UserRepositoryCustom {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUserId(String userId);
 
     List<User> findByTeamName(String teamName);
@@ -21,10 +26,17 @@ public interface UserRepository extends JpaRepository<User, String> {
     @Query("SELECT u FROM User u WHERE u.teamName = :teamName AND u.isActive = true AND u.userId != :excludeUserId")
     List<User> findActiveUsersExcludingAuthor(@Param("teamName") String teamName, @Param("excludeUserId") String excludeUserId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByUserId(String userId);
 
+    @Query("SELECT u.userId FROM User u")
+    List<String> findAllUserIds();
+
+    @Query("SELECT u.userId FROM User u WHERE u.userId IN :userIds")
+    List<String> findExistingUserIds(@Param("userIds") Collection<String> userIds);
+
     @Query(value = "SELECT DISTINCT u.* FROM users u " +
-            "INNER JOIN assigned_reviewers ar ON u.user_id = ar.user_id " +
+            "INNER JOIN assigned_reviewers ar ON u.user_key = ar.user_key " +
             "WHERE u.team_name = :teamName", nativeQuery = true)
     List<User> findReviewersInTeam(@Param("teamName") String teamName);
 }
@@ -0,0 +1,12 @@
+package org.example.avitotech.repository;
+
+import org.example.avitotech.model.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+
+    // Пользователи по id: сначала из кэша второго уровня, недостающие - одним запросом
+    Map<String, User> findCachedByUserIds(Collection<String> userIds);
+}
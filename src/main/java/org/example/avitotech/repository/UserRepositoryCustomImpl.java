@@ -0,0 +1,37 @@
+package org.example.avitotech.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.avitotech.model.User;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<String, User> findCachedByUserIds(Collection<String> userIds) {
+        Map<String, User> users = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+
+        List<User> loaded = entityManager.unwrap(Session.class)
+                .byMultipleIds(User.class)
+                .with(CacheMode.NORMAL)
+                .multiLoad(new ArrayList<>(userIds));
+        loaded.stream()
+                .filter(Objects::nonNull)
+                .forEach(user -> users.put(user.getUserId(), user));
+        return users;
+    }
+}
@@ -0,0 +1,384 @@
+package org.example.avitotech.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.dto.PullRequestStatsResponse;
+import org.example.avitotech.dto.StatsResponse;
+import org.example.avitotech.event.PullRequestsMergedEvent;
+import org.example.avitotech.event.ReviewersChangedEvent;
+import org.example.avitotech.event.UsersChangedEvent;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.model.User;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.repository.PullRequestJdbcRepository.PullRequestReviewerCount;
+import org.example.avitotech.repository.UserJdbcRepository;
+import org.example.avitotech.repository.UserJdbcRepository.ReviewerStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Счётчики назначений по пользователям, командам и PR, включая число ревьюверов каждого открытого PR.
+// Обновляются по событиям после коммита, раз в reconcile-interval пересобираются из таблиц
+// постраничными запросами. Слитые PR в памяти не хранятся: их число ревьюверов больше не меняется,
+// и /stats?pr_id= читает его точечным запросом
+@Slf4j
+@Component
+public class AssignmentStatistics {
+
+    private static final Comparator<Map.Entry<String, UserTally>> BY_ASSIGNMENTS =
+            Comparator.<Map.Entry<String, UserTally>>comparingLong(entry -> entry.getValue().assignments)
+                    .reversed()
+                    .thenComparing(Map.Entry.<String, UserTally>comparingByKey());
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final PullRequestJdbcRepository pullRequestJdbcRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final int batchSize;
+
+    private final Object lock = new Object();
+    // Сверка держит блокировку на время чтения таблиц; ReentrantLock, в отличие от synchronized,
+    // не закрепляет виртуальный поток за потоком-носителем на время ожидания БД
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    // Все поля ниже - под lock
+    private Counters counters = new Counters();
+    private List<Consumer<Counters>> pending;
+    private LocalDateTime reconciledAt;
+
+    public AssignmentStatistics(UserJdbcRepository userJdbcRepository,
+                                PullRequestJdbcRepository pullRequestJdbcRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.stats.reconcile-batch-size:5000}") int batchSize) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.pullRequestJdbcRepository = pullRequestJdbcRepository;
+        this.batchSize = batchSize;
+
+        // Все страницы сверки читаются из одного снимка БД
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    // teamName = null - все команды; пользователи - первые limit по числу назначений
+    public StatsResponse snapshot(String teamName, int limit) {
+        synchronized (lock) {
+            PriorityQueue<Map.Entry<String, UserTally>> top = new PriorityQueue<>(BY_ASSIGNMENTS.reversed());
+            for (Map.Entry<String, UserTally> entry : counters.users.entrySet()) {
+                if (teamName != null && !teamName.equals(entry.getValue().teamName)) {
+                    continue;
+                }
+                top.add(entry);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<StatsResponse.UserStats> users = top.stream()
+                    .sorted(BY_ASSIGNMENTS)
+                    .map(entry -> StatsResponse.UserStats.builder()
+                            .userId(entry.getKey())
+                            .teamName(entry.getValue().teamName)
+                            .assignments(entry.getValue().assignments)
+                            .openReviews(entry.getValue().openReviews)
+                            .build())
+                    .toList();
+
+            List<StatsResponse.TeamStats> teams = counters.teams.entrySet().stream()
+                    .filter(entry -> teamName == null || teamName.equals(entry.getKey()))
+                    .map(entry -> StatsResponse.TeamStats.builder()
+                            .teamName(entry.getKey())
+                            .assignments(entry.getValue().assignments)
+                            .openReviews(entry.getValue().openReviews)
+                            .build())
+                    .sorted(Comparator.comparingLong(StatsResponse.TeamStats::getAssignments).reversed()
+                            .thenComparing(StatsResponse.TeamStats::getTeamName))
+                    .toList();
+
+            return StatsResponse.builder()
+                    .reconciledAt(reconciledAt)
+                    .pullRequests(StatsResponse.PullRequestStats.builder()
+                            .total(counters.totalPullRequests)
+                            .open(counters.openPullRequests)
+                            .merged(counters.totalPullRequests - counters.openPullRequests)
+                            .byReviewerCount(new TreeMap<>(counters.byReviewerCount))
+                            .build())
+                    .teams(teams)
+                    .users(users)
+                    .build();
+        }
+    }
+
+    // Открытый PR - из счётчиков, остальные (слитые, архивные и ещё не дошедшие событием) - из таблиц,
+    // тогда reconciled_at пуст. Пусто - PR нет
+    public Optional<PullRequestStatsResponse> pullRequestSnapshot(String pullRequestId) {
+        synchronized (lock) {
+            PullRequestTally pullRequest = counters.pullRequests.get(pullRequestId);
+            if (pullRequest != null) {
+                return Optional.of(PullRequestStatsResponse.builder()
+                        .reconciledAt(reconciledAt)
+                        .pullRequestId(pullRequestId)
+                        .status(PullRequestStatus.OPEN)
+                        .reviewers(pullRequest.reviewers)
+                        .build());
+            }
+        }
+
+        return pullRequestJdbcRepository.findReviewerCount(pullRequestId)
+                .map(pullRequest -> PullRequestStatsResponse.builder()
+                        .pullRequestId(pullRequestId)
+                        .status(pullRequest.getStatus())
+                        .reviewers(pullRequest.getReviewerCount())
+                        .build());
+    }
+
+    // Между командами пользователи переносятся только созданием и импортом команды - такое событие
+    // несёт одну команду. Для остальных событий команда известных пользователей не меняется
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        Map<String, String> teams = new HashMap<>();
+        if (event.getTeamNames().size() == 1) {
+            String teamName = event.getTeamNames().iterator().next();
+            event.getUserIds().forEach(userId -> teams.put(userId, teamName));
+        } else {
+            for (User user : userJdbcRepository.findByUserIds(unknownUsers(event.getUserIds())).values()) {
+                teams.put(user.getUserId(), user.getTeamName());
+            }
+        }
+        update(counters -> teams.forEach(counters::moveUser));
+    }
+
+    // При переназначении число ревьюверов PR меняется на разницу назначенных и снятых. Открытые ревью
+    // считаются как в ReviewerLoadIndex: ручное переназначение на MERGED PR и пользователи, добавленные
+    // в обход сервисов, выравниваются ближайшей сверкой
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewersChanged(ReviewersChangedEvent event) {
+        update(counters -> {
+            event.getAssigned().forEach((pullRequestId, userIds) -> {
+                if (event.isCreated()) {
+                    counters.addPullRequest(pullRequestId, PullRequestStatus.OPEN, userIds.size());
+                } else {
+                    counters.resizePullRequest(pullRequestId, userIds.size());
+                }
+                userIds.forEach(userId -> counters.adjustUser(userId, 1, 1));
+            });
+            event.getUnassigned().forEach((pullRequestId, userIds) -> {
+                counters.resizePullRequest(pullRequestId, -userIds.size());
+                userIds.forEach(userId -> counters.adjustUser(userId, -1, -1));
+            });
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPullRequestsMerged(PullRequestsMergedEvent event) {
+        update(counters -> event.getReviewersByPullRequest().forEach((pullRequestId, userIds) -> {
+            counters.openPullRequests--;
+            counters.pullRequests.remove(pullRequestId);
+            userIds.forEach(userId -> counters.adjustUser(userId, 0, -1));
+        }));
+    }
+
+    // Пересборка из таблиц. События, пришедшие во время сверки, применяются и к текущим
+    // счётчикам, и к пересобранным; расхождение на границе снимка исправит следующая сверка
+    @Scheduled(initialDelayString = "${app.stats.reconcile-initial-delay:PT0S}",
+            fixedDelayString = "${app.stats.reconcile-interval:PT1H}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            long started = System.nanoTime();
+            synchronized (lock) {
+                pending = new ArrayList<>();
+            }
+
+            Counters rebuilt = null;
+            try {
+                rebuilt = snapshotTransaction.execute(status -> load());
+            } finally {
+                synchronized (lock) {
+                    if (rebuilt != null) {
+                        for (Consumer<Counters> change : pending) {
+                            change.accept(rebuilt);
+                        }
+                        // После первой загрузки расхождение показывает, насколько инкрементальные счётчики ушли от таблиц
+                        int drifted = reconciledAt != null ? rebuilt.countDifferences(counters) : 0;
+                        counters = rebuilt;
+                        reconciledAt = LocalDateTime.now();
+                        log.info("Assignment statistics reconciled in {} ms: {} users, {} pull requests, {} counters corrected",
+                                (System.nanoTime() - started) / 1_000_000,
+                                rebuilt.users.size(), rebuilt.totalPullRequests, drifted);
+                    }
+                    pending = null;
+                }
+            }
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private Counters load() {
+        Counters rebuilt = new Counters();
+
+        String afterUserId = "";
+        List<ReviewerStats> users;
+        do {
+            users = userJdbcRepository.findReviewerStatsPage(afterUserId, batchSize);
+            for (ReviewerStats stats : users) {
+                rebuilt.moveUser(stats.getUserId(), stats.getTeamName());
+                rebuilt.adjustUser(stats.getUserId(), stats.getAssignments(), stats.getOpenReviews());
+                afterUserId = stats.getUserId();
+            }
+        } while (users.size() == batchSize);
+
+        String afterPullRequestId = "";
+        List<PullRequestReviewerCount> pullRequests;
+        do {
+            pullRequests = pullRequestJdbcRepository.findReviewerCountPage(afterPullRequestId, batchSize);
+            for (PullRequestReviewerCount pullRequest : pullRequests) {
+                rebuilt.addPullRequest(pullRequest.getPullRequestId(), pullRequest.getStatus(), pullRequest.getReviewerCount());
+                afterPullRequestId = pullRequest.getPullRequestId();
+            }
+        } while (pullRequests.size() == batchSize);
+
+        return rebuilt;
+    }
+
+    private void update(Consumer<Counters> change) {
+        synchronized (lock) {
+            change.accept(counters);
+            if (pending != null) {
+                pending.add(change);
+            }
+        }
+    }
+
+    private Set<String> unknownUsers(Collection<String> userIds) {
+        synchronized (lock) {
+            Set<String> unknown = new HashSet<>(userIds);
+            unknown.removeAll(counters.users.keySet());
+            return unknown;
+        }
+    }
+
+    private static final class Counters {
+
+        private final Map<String, UserTally> users = new HashMap<>();
+        private final Map<String, Tally> teams = new HashMap<>();
+        private final Map<String, PullRequestTally> pullRequests = new HashMap<>();
+        private final Map<Integer, Long> byReviewerCount = new HashMap<>();
+        private long totalPullRequests;
+        private long openPullRequests;
+
+        void moveUser(String userId, String teamName) {
+            UserTally user = users.computeIfAbsent(userId, id -> new UserTally());
+            if (Objects.equals(user.teamName, teamName)) {
+                return;
+            }
+            adjustTeam(user.teamName, -user.assignments, -user.openReviews);
+            user.teamName = teamName;
+            adjustTeam(teamName, user.assignments, user.openReviews);
+        }
+
+        void adjustUser(String userId, long assignments, long openReviews) {
+            UserTally user = users.computeIfAbsent(userId, id -> new UserTally());
+            user.assignments += assignments;
+            user.openReviews += openReviews;
+            adjustTeam(user.teamName, assignments, openReviews);
+        }
+
+        void addPullRequest(String pullRequestId, PullRequestStatus status, int reviewerCount) {
+            totalPullRequests++;
+            if (status == PullRequestStatus.OPEN) {
+                openPullRequests++;
+            }
+            byReviewerCount.merge(reviewerCount, 1L, Long::sum);
+            if (status == PullRequestStatus.OPEN) {
+                pullRequests.put(pullRequestId, new PullRequestTally(reviewerCount));
+            }
+        }
+
+        // Слитый PR и PR, которого нет в счётчиках, выравниваются ближайшей сверкой
+        void resizePullRequest(String pullRequestId, int delta) {
+            PullRequestTally pullRequest = pullRequests.get(pullRequestId);
+            if (pullRequest == null || delta == 0) {
+                return;
+            }
+            byReviewerCount.merge(pullRequest.reviewers, -1L, (count, one) -> count + one == 0 ? null : count + one);
+            pullRequest.reviewers += delta;
+            byReviewerCount.merge(pullRequest.reviewers, 1L, Long::sum);
+        }
+
+        private void adjustTeam(String teamName, long assignments, long openReviews) {
+            if (teamName == null) {
+                return;
+            }
+            Tally team = teams.computeIfAbsent(teamName, name -> new Tally());
+            team.assignments += assignments;
+            team.openReviews += openReviews;
+        }
+
+        int countDifferences(Counters other) {
+            int differences = 0;
+            for (Map.Entry<String, UserTally> entry : users.entrySet()) {
+                UserTally current = other.users.get(entry.getKey());
+                if (current == null || !entry.getValue().sameAs(current)) {
+                    differences++;
+                }
+            }
+            for (Map.Entry<String, PullRequestTally> entry : pullRequests.entrySet()) {
+                PullRequestTally current = other.pullRequests.get(entry.getKey());
+                if (current == null || !entry.getValue().sameAs(current)) {
+                    differences++;
+                }
+            }
+            if (totalPullRequests != other.totalPullRequests || openPullRequests != other.openPullRequests
+                    || !byReviewerCount.equals(other.byReviewerCount)) {
+                differences++;
+            }
+            return differences;
+        }
+    }
+
+    private static class Tally {
+        long assignments;
+        long openReviews;
+    }
+
+    private static final class PullRequestTally {
+        int reviewers;
+
+        PullRequestTally(int reviewers) {
+            this.reviewers = reviewers;
+        }
+
+        boolean sameAs(PullRequestTally other) {
+            return reviewers == other.reviewers;
+        }
+    }
+
+    private static final class UserTally extends Tally {
+        String teamName;
+
+        boolean sameAs(UserTally other) {
+            return assignments == other.assignments && openReviews == other.openReviews
+                    && Objects.equals(teamName, other.teamName);
+        }
+    }
+}
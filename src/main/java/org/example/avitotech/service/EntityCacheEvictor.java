@@ -0,0 +1,35 @@
+package org.example.avitotech.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.avitotech.event.ListenerOrder;
+import org.example.avitotech.event.UsersChangedEvent;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.model.User;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Записи в users через JdbcTemplate (массовая деактивация) проходят мимо Hibernate, а состав
+// Team.members не отслеживается им и при сохранении User через JPA: связь team у User read-only.
+// Поэтому после коммита изменённые пользователи, составы команд и кэш запросов снимаются явно
+@Component
+public class EntityCacheEvictor {
+
+    private static final String TEAM_MEMBERS_ROLE = Team.class.getName() + ".members";
+
+    private final Cache cache;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @Order(ListenerOrder.ENTITY_CACHE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        event.getUserIds().forEach(userId -> cache.evictEntityData(User.class, userId));
+        event.getTeamNames().forEach(teamName -> cache.evictCollectionData(TEAM_MEMBERS_ROLE, teamName));
+        cache.evictDefaultQueryRegion();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.avitotech.service;
+
+import lombok.Value;
+import org.example.avitotech.exception.ApiException;
+import org.example.avitotech.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Позиция в выдаче, упорядоченной по (created_at, pull_request_id) по убыванию.
+// Клиенту отдаётся непрозрачной base64url-строкой
+@Value
+public class KeysetCursor {
+    LocalDateTime createdAt;
+    String pullRequestId;
+
+    public String encode() {
+        String raw = createdAt + "|" + pullRequestId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Cursor separator not found");
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ApiException(ErrorCode.BAD_REQUEST, "Invalid cursor", ErrorCode.ErrorCategory.CLIENT_ERROR);
+        }
+    }
+}
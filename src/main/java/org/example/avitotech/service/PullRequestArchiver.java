@@ -0,0 +1,70 @@
+package org.example.avitotech.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.event.PullRequestsArchivedEvent;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.repository.PullRequestJdbcRepository.ArchivedBatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Переносит PR, слитые раньше retention, вместе с назначениями в архивные таблицы. Каждая порция
+// до batch-size PR - отдельная транзакция, поэтому блокировки держатся недолго, а прерванный
+// проход продолжается со следующего запуска
+@Slf4j
+@Component
+public class PullRequestArchiver {
+
+    private final PullRequestJdbcRepository pullRequestJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final Duration retention;
+    private final int batchSize;
+
+    public PullRequestArchiver(PullRequestJdbcRepository pullRequestJdbcRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.archive.retention:P30D}") Duration retention,
+                               @Value("${app.archive.batch-size:1000}") int batchSize) {
+        this.pullRequestJdbcRepository = pullRequestJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.archive.initial-delay:PT10M}",
+            fixedDelayString = "${app.archive.interval:PT1H}")
+    public void archiveScheduled() {
+        archive(LocalDateTime.now().minus(retention));
+    }
+
+    // Возвращает число перенесённых PR
+    public int archive(LocalDateTime mergedBefore) {
+        long started = System.nanoTime();
+        int archived = 0;
+        int moved;
+        do {
+            moved = batchTransaction.execute(status -> {
+                ArchivedBatch batch = pullRequestJdbcRepository.archiveMergedBefore(mergedBefore, batchSize);
+                if (!batch.getReviewerIds().isEmpty()) {
+                    eventPublisher.publishEvent(PullRequestsArchivedEvent.of(batch.getReviewerIds()));
+                }
+                return batch.getPullRequests();
+            });
+            archived += moved;
+        } while (moved == batchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} pull requests merged before {} in {} ms",
+                    archived, mergedBefore, (System.nanoTime() - started) / 1_000_000);
+        }
+        return archived;
+    }
+}
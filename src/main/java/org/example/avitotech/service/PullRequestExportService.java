@@ -0,0 +1,69 @@
+package org.example.avitotech.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.config.ReplicaRead;
+import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+// Выгрузка PR в NDJSON: строки курсора сразу пишутся в поток ответа, сущности не создаются,
+// поэтому память не зависит от числа PR
+@Slf4j
+@Service
+public class PullRequestExportService {
+
+    private final PullRequestJdbcRepository pullRequestJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public PullRequestExportService(PullRequestJdbcRepository pullRequestJdbcRepository, ObjectMapper objectMapper) {
+        this.pullRequestJdbcRepository = pullRequestJdbcRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Транзакция нужна для серверного курсора; возвращает число выгруженных PR
+    @ReplicaRead
+    @Transactional(readOnly = true)
+    public long exportPullRequests(PullRequestStatus status, LocalDateTime createdFrom, LocalDateTime createdTo,
+                                   boolean includeArchived, OutputStream out) throws IOException {
+        log.info("Exporting pull requests: status={}, createdFrom={}, createdTo={}, includeArchived={}",
+                status, createdFrom, createdTo, includeArchived);
+
+        // Без flush после каждого PR: поток сбрасывается по заполнению буфера
+        ObjectWriter writer = objectMapper.writerFor(PullRequestResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long[] exported = {0};
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            pullRequestJdbcRepository.streamPullRequests(status, createdFrom, createdTo, includeArchived, pullRequest -> {
+                try {
+                    writer.writeValue(generator, pullRequest);
+                    generator.writeRaw('\n');
+                    exported[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Обычно клиент закрыл соединение; исключение откатывает транзакцию и закрывает курсор
+            throw e.getCause();
+        }
+
+        log.info("Exported {} pull requests", exported[0]);
+        return exported[0];
+    }
+}
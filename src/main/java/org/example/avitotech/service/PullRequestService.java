@@ -1,37 +1,67 @@
 package org.example.avitotech.service;
 
+import org.example.avitotech.config.ReplicaRead;
+import org.example.avitotech.dto.PullRequestBatchItemResponse;
+import org.example.avitotech.dto.PullRequestBatchMergeItemResponse;
+import org.example.avitotech.dto.PullRequestReassignResponse;
+import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.dto.PullRequestSearchResponse;
+import org.example.avitotech.event.PullRequestsMergedEvent;
+import org.example.avitotech.event.ReviewersChangedEvent;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.model.AssignedReviewer;
 import org.example.avitotech.model.PullRequest;
 import org.example.avitotech.model.PullRequestStatus;
 import org.example.avitotech.model.User;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
 import org.example.avitotech.repository.PullRequestRepository;
+import org.example.avitotech.repository.UserJdbcRepository;
 import org.example.avitotech.repository.UserRepository;
-import org.example.avitotech.repository.AssignedReviewerRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class PullRequestService {
 
+    private static final int AUTO_ASSIGNED_REVIEWERS = 2;
+
     private final PullRequestRepository pullRequestRepository;
     private final UserRepository userRepository;
-    private final AssignedReviewerRepository assignedReviewerRepository;
+    private final PullRequestJdbcRepository pullRequestJdbcRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final ReviewerLoadIndex reviewerLoadIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public PullRequestService(PullRequestRepository pullRequestRepository,
                               UserRepository userRepository,
-                              AssignedReviewerRepository assignedReviewerRepository) {
+                              PullRequestJdbcRepository pullRequestJdbcRepository,
+                              UserJdbcRepository userJdbcRepository,
+                              ReviewerLoadIndex reviewerLoadIndex,
+                              ApplicationEventPublisher eventPublisher) {
         this.pullRequestRepository = pullRequestRepository;
         this.userRepository = userRepository;
-        this.assignedReviewerRepository = assignedReviewerRepository;
+        this.pullRequestJdbcRepository = pullRequestJdbcRepository;
+        this.userJdbcRepository = userJdbcRepository;
+        this.reviewerLoadIndex = reviewerLoadIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -39,23 +69,23 @@ public class PullRequestService {
         log.info("Creating pull request: prId={}, prName={}, authorId={}, reviewerIds={}",
                 prId, prName, authorId, reviewerIds);
 
+        return create(prId, prName, authorId, reviewerIds);
+    }
+
+    @Transactional
+    public PullRequest createPullRequestWithAutoAssign(String prId, String prName, String authorId) {
+        log.info("Creating pull request with auto-assigned reviewers: prId={}, prName={}, authorId={}",
+                prId, prName, authorId);
+
+        return create(prId, prName, authorId, List.of());
+    }
+
+    private PullRequest create(String prId, String prName, String authorId, List<String> reviewerIds) {
         if (pullRequestRepository.existsByPullRequestId(prId)) {
             log.warn("Pull request already exists: {}", prId);
             throw new ApiException(ErrorCode.ALREADY_EXISTS, "Pull request with ID " + prId + " already exists", ErrorCode.ErrorCategory.CONFLICT);
         }
 
-        if (!userRepository.existsByUserId(authorId)) {
-            log.warn("Author not found: {}", authorId);
-            throw new ApiException(ErrorCode.NOT_FOUND, "Author not found", ErrorCode.ErrorCategory.CONFLICT);
-        }
-
-        for (String reviewerId : reviewerIds) {
-            if (!userRepository.existsByUserId(reviewerId)) {
-                log.warn("Reviewer not found: {}", reviewerId);
-                throw new ApiException(ErrorCode.NOT_FOUND, "Reviewer not found: " + reviewerId, ErrorCode.ErrorCategory.CONFLICT);
-            }
-        }
-
         PullRequest pullRequest = PullRequest.builder()
                 .pullRequestId(prId)
                 .pullRequestName(prName)
@@ -63,16 +93,159 @@ public class PullRequestService {
                 .status(PullRequestStatus.OPEN)
                 .createdAt(LocalDateTime.now())
                 .mergedAt(null)
+                .assignedReviewers(new LinkedHashSet<>(reviewerIds).stream()
+                        .map(reviewerId -> AssignedReviewer.builder()
+                                .pullRequestId(prId)
+                                .userId(reviewerId)
+                                .build())
+                        .collect(Collectors.toList()))
                 .build();
 
-        PullRequest savedPullRequest = pullRequestRepository.save(pullRequest);
-        log.info("Pull request created successfully: {}", prId);
+        // Участники одного PR почти всегда уже в кэше второго уровня
+        Map<String, User> participants = userRepository.findCachedByUserIds(participantIds(List.of(pullRequest)));
+
+        ApiException validationError = validateParticipants(pullRequest, participants);
+        if (validationError != null) {
+            throw validationError;
+        }
+
+        if (pullRequest.getAssignedReviewers().isEmpty()) {
+            autoAssignReviewers(pullRequest, participants.get(authorId), Map.of());
+        }
+
+        if (pullRequestJdbcRepository.insertPullRequests(List.of(pullRequest))[0] == 0) {
+            log.warn("Pull request already exists: {}", prId);
+            throw new ApiException(ErrorCode.ALREADY_EXISTS, "Pull request with ID " + prId + " already exists", ErrorCode.ErrorCategory.CONFLICT);
+        }
+        pullRequestJdbcRepository.insertReviewers(pullRequest.getAssignedReviewers());
+        eventPublisher.publishEvent(ReviewersChangedEvent.created(reviewersByPullRequest(List.of(pullRequest))));
+
+        log.info("Pull request created with {} reviewers: {}", pullRequest.getAssignedReviewers().size(), prId);
+        return pullRequest;
+    }
+
+    // PR без ревьюверов получают их автоматически из команды автора
+    @Transactional
+    public List<PullRequestBatchItemResponse> createPullRequests(List<PullRequest> pullRequests) {
+        log.info("Creating {} pull requests in batch", pullRequests.size());
+
+        Set<String> existingIds = pullRequestJdbcRepository.findExistingIds(pullRequests.stream()
+                .map(PullRequest::getPullRequestId)
+                .collect(Collectors.toSet()));
+        Map<String, User> participants = userJdbcRepository.findByUserIds(participantIds(pullRequests));
+
+        PullRequestBatchItemResponse[] results = new PullRequestBatchItemResponse[pullRequests.size()];
+        List<PullRequest> accepted = new ArrayList<>();
+        List<Integer> acceptedPositions = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+        // Назначения пакета попадут в ReviewerLoadIndex только после коммита, поэтому
+        // автоназначение учитывает уже выбранных в этом пакете ревьюверов само
+        Map<String, Integer> batchReviews = new HashMap<>();
+
+        for (int i = 0; i < pullRequests.size(); i++) {
+            PullRequest pullRequest = pullRequests.get(i);
+            String prId = pullRequest.getPullRequestId();
+
+            if (!seenIds.add(prId) || existingIds.contains(prId)) {
+                results[i] = PullRequestBatchItemResponse.failed(prId, ErrorCode.ALREADY_EXISTS,
+                        "Pull request with ID " + prId + " already exists");
+                continue;
+            }
+
+            ApiException validationError = validateParticipants(pullRequest, participants);
+            if (validationError != null) {
+                results[i] = PullRequestBatchItemResponse.failed(prId, validationError.getErrorCode(),
+                        validationError.getErrorMessage());
+                continue;
+            }
+
+            if (pullRequest.getAssignedReviewers().isEmpty()) {
+                autoAssignReviewers(pullRequest, participants.get(pullRequest.getAuthorId()), batchReviews);
+            }
+            pullRequest.getAssignedReviewers().forEach(reviewer -> batchReviews.merge(reviewer.getUserId(), 1, Integer::sum));
+
+            accepted.add(pullRequest);
+            acceptedPositions.add(i);
+        }
+
+        int[] inserted = pullRequestJdbcRepository.insertPullRequests(accepted);
+        List<PullRequest> created = new ArrayList<>();
+        List<AssignedReviewer> reviewers = new ArrayList<>();
+
+        for (int j = 0; j < accepted.size(); j++) {
+            PullRequest pullRequest = accepted.get(j);
+            int position = acceptedPositions.get(j);
+
+            // 0 - PR с таким id вставили параллельно после нашей проверки
+            if (inserted[j] == 0) {
+                results[position] = PullRequestBatchItemResponse.failed(pullRequest.getPullRequestId(),
+                        ErrorCode.ALREADY_EXISTS, "Pull request with ID " + pullRequest.getPullRequestId() + " already exists");
+                continue;
+            }
+
+            results[position] = PullRequestBatchItemResponse.created(pullRequest);
+            created.add(pullRequest);
+            reviewers.addAll(pullRequest.getAssignedReviewers());
+        }
+
+        pullRequestJdbcRepository.insertReviewers(reviewers);
+        eventPublisher.publishEvent(ReviewersChangedEvent.created(reviewersByPullRequest(created)));
+
+        log.info("Batch creation finished: {} of {} pull requests created, {} reviewers assigned",
+                Arrays.stream(results).filter(PullRequestBatchItemResponse::isCreated).count(),
+                pullRequests.size(), reviewers.size());
+        return Arrays.asList(results);
+    }
+
+    private void autoAssignReviewers(PullRequest pullRequest, User author, Map<String, Integer> pendingReviews) {
+        List<String> reviewerIds = reviewerLoadIndex.pickReviewers(
+                author.getTeamName(), Set.of(author.getUserId()), AUTO_ASSIGNED_REVIEWERS, pendingReviews);
+
+        pullRequest.setAssignedReviewers(reviewerIds.stream()
+                .map(reviewerId -> AssignedReviewer.builder()
+                        .pullRequestId(pullRequest.getPullRequestId())
+                        .userId(reviewerId)
+                        .build())
+                .collect(Collectors.toList()));
+        log.debug("Auto-assigned reviewers for PR {}: {}", pullRequest.getPullRequestId(), reviewerIds);
+    }
+
+    private static Map<String, List<String>> reviewersByPullRequest(List<PullRequest> pullRequests) {
+        Map<String, List<String>> reviewers = new HashMap<>();
+        for (PullRequest pullRequest : pullRequests) {
+            reviewers.put(pullRequest.getPullRequestId(), pullRequest.getAssignedReviewers().stream()
+                    .map(AssignedReviewer::getUserId)
+                    .toList());
+        }
+        return reviewers;
+    }
+
+    private static Set<String> participantIds(List<PullRequest> pullRequests) {
+        Set<String> userIds = new HashSet<>();
+        for (PullRequest pullRequest : pullRequests) {
+            userIds.add(pullRequest.getAuthorId());
+            pullRequest.getAssignedReviewers().forEach(reviewer -> userIds.add(reviewer.getUserId()));
+        }
+        return userIds;
+    }
+
+    private static ApiException validateParticipants(PullRequest pullRequest, Map<String, User> participants) {
+        if (!participants.containsKey(pullRequest.getAuthorId())) {
+            log.warn("Author not found: {}", pullRequest.getAuthorId());
+            return new ApiException(ErrorCode.NOT_FOUND, "Author not found", ErrorCode.ErrorCategory.CONFLICT);
+        }
+
+        for (AssignedReviewer reviewer : pullRequest.getAssignedReviewers()) {
+            if (!participants.containsKey(reviewer.getUserId())) {
+                log.warn("Reviewer not found: {}", reviewer.getUserId());
+                return new ApiException(ErrorCode.NOT_FOUND, "Reviewer not found: " + reviewer.getUserId(), ErrorCode.ErrorCategory.CONFLICT);
+            }
+        }
 
-        for (String reviewerId : reviewerIds) {
-            User reviewer = userRepository.findByUserId(reviewerId)
-                    .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND, "Reviewer not found: " + reviewerId, ErrorCode.ErrorCategory.CONFLICT));
-            if (reviewer.getIsActive() == false) {
-                throw new ApiException(
+        for (AssignedReviewer reviewer : pullRequest.getAssignedReviewers()) {
+            if (!participants.get(reviewer.getUserId()).getIsActive()) {
+                log.warn("Reviewer {} is not active", reviewer.getUserId());
+                return new ApiException(
                         ErrorCode.NO_CANDIDATE,
                         "no active replacement candidate in team",
                         ErrorCode.ErrorCategory.CONFLICT
@@ -80,41 +253,76 @@ public class PullRequestService {
             }
         }
 
-
-        log.info("Pull request created with {} reviewers: {}", reviewerIds.size(), prId);
-        return pullRequestRepository.findByPullRequestId(prId)
-                .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT));
+        return null;
     }
 
+    // Идемпотентно: повторный merge возвращает текущее состояние PR. Статус проверяется
+    // в самом UPDATE, поэтому блокировка строки держится только на время одного запроса
     @Transactional
     public PullRequest mergePullRequest(String prId) {
         log.info("Merging pull request: {}", prId);
 
-        PullRequest pullRequest = pullRequestRepository.findByPullRequestId(prId)
+        Optional<PullRequest> merged = pullRequestJdbcRepository.mergeIfOpen(prId, LocalDateTime.now());
+        if (merged.isPresent()) {
+            eventPublisher.publishEvent(PullRequestsMergedEvent.of(reviewersByPullRequest(List.of(merged.get()))));
+            log.info("Pull request merged successfully: {}", prId);
+            return merged.get();
+        }
+
+        PullRequest pullRequest = pullRequestJdbcRepository.findWithReviewerTeams(prId)
+                .or(() -> pullRequestJdbcRepository.findArchived(prId))
                 .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT));
+        log.info("Pull request {} is already merged", prId);
+        return pullRequest;
+    }
 
-        if (pullRequest.getStatus() != PullRequestStatus.OPEN) {
-            log.warn("Cannot merge PR with status: {}", pullRequest.getStatus());
-            throw new ApiException(ErrorCode.INVALID_STATE, "Pull request is not in OPEN status", ErrorCode.ErrorCategory.CONFLICT);
+    // Один UPDATE на все OPEN PR из списка и один запрос для остальных id
+    @Transactional
+    public List<PullRequestBatchMergeItemResponse> mergePullRequests(List<String> prIds) {
+        log.info("Merging {} pull requests in batch", prIds.size());
+
+        Map<String, PullRequest> merged = new HashMap<>();
+        for (PullRequest pullRequest : pullRequestJdbcRepository.mergeAllIfOpen(new LinkedHashSet<>(prIds), LocalDateTime.now())) {
+            merged.put(pullRequest.getPullRequestId(), pullRequest);
         }
 
-        pullRequest.setStatus(PullRequestStatus.MERGED);
-        pullRequest.setMergedAt(LocalDateTime.now());
+        Set<String> remainingIds = new HashSet<>(prIds);
+        remainingIds.removeAll(merged.keySet());
+        Map<String, LocalDateTime> existing = pullRequestJdbcRepository.findMergedAt(remainingIds);
+
+        List<PullRequestBatchMergeItemResponse> results = new ArrayList<>(prIds.size());
+        Set<String> reported = new HashSet<>();
+        for (String prId : prIds) {
+            PullRequest pullRequest = merged.get(prId);
+            if (pullRequest != null && reported.add(prId)) {
+                results.add(PullRequestBatchMergeItemResponse.merged(prId, pullRequest.getMergedAt()));
+            } else if (pullRequest != null) {
+                results.add(PullRequestBatchMergeItemResponse.alreadyMerged(prId, pullRequest.getMergedAt()));
+            } else if (existing.containsKey(prId)) {
+                results.add(PullRequestBatchMergeItemResponse.alreadyMerged(prId, existing.get(prId)));
+            } else {
+                results.add(PullRequestBatchMergeItemResponse.notFound(prId));
+            }
+        }
 
-        PullRequest mergedPullRequest = pullRequestRepository.save(pullRequest);
-        log.info("Pull request merged successfully: {}", prId);
+        if (!merged.isEmpty()) {
+            eventPublisher.publishEvent(PullRequestsMergedEvent.of(reviewersByPullRequest(new ArrayList<>(merged.values()))));
+        }
 
-        return mergedPullRequest;
+        log.info("Batch merge finished: {} of {} pull requests merged, {} not found",
+                merged.size(), prIds.size(), prIds.stream().filter(id -> !merged.containsKey(id) && !existing.containsKey(id)).count());
+        return results;
     }
 
     @Transactional
     public PullRequest reassignReviewer(String prId, String oldReviewerId, String newReviewerId) {
         log.info("Reassigning reviewer for PR: prId={}, oldReviewer={}, newReviewer={}", prId, oldReviewerId, newReviewerId);
 
-        PullRequest pullRequest = pullRequestRepository.findByPullRequestId(prId)
-                .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT));
+        // PR с ревьюверами - одним запросом, пользователь - из кэша второго уровня
+        PullRequest pullRequest = pullRequestJdbcRepository.findWithReviewerTeams(prId)
+                .orElseThrow(() -> notFoundForReassign(prId));
 
-        User newReviewerUser = userRepository.findByUserId(newReviewerId)
+        User newReviewerUser = userRepository.findById(newReviewerId)
                 .orElseThrow(() -> {
                     log.warn("New reviewer not found: {}", newReviewerId);
                     return new ApiException(ErrorCode.NOT_FOUND, "New reviewer not found", ErrorCode.ErrorCategory.CONFLICT);
@@ -145,25 +353,116 @@ public class PullRequestService {
             throw new ApiException(ErrorCode.ALREADY_EXISTS, "Reviewer already assigned to this PR", ErrorCode.ErrorCategory.CONFLICT);
         }
 
-        assignedReviewerRepository.delete(oldReviewer);
-        log.debug("Removed reviewer {} from PR {}", oldReviewerId, prId);
+        // 0 строк - ревьюверов PR изменили параллельно после чтения
+        if (pullRequestJdbcRepository.replaceReviewer(prId, oldReviewerId, newReviewerId) == 0) {
+            log.warn("Reviewers of PR {} changed concurrently, reviewer {} not replaced", prId, oldReviewerId);
+            throw new ApiException(ErrorCode.NOT_FOUND, "Reviewer not assigned to this PR", ErrorCode.ErrorCategory.CONFLICT);
+        }
 
-        AssignedReviewer newReviewer = AssignedReviewer.builder()
-                .pullRequest(pullRequest)
-                .userId(newReviewerId)
-                .build();
-        assignedReviewerRepository.save(newReviewer);
+        oldReviewer.setUserId(newReviewerId);
+        oldReviewer.setUser(newReviewerUser);
+        eventPublisher.publishEvent(ReviewersChangedEvent.reassigned(prId, oldReviewerId, newReviewerId));
         log.info("Reassigned reviewer: old={}, new={}, PR={}", oldReviewerId, newReviewerId, prId);
 
-        return pullRequestRepository.findByPullRequestId(prId)
-                .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT));
+        return pullRequest;
+    }
+
+    // Замена из той же команды, что и старый ревьювер: наименее загруженный активный участник,
+    // кроме автора и уже назначенных ревьюверов. Кандидат берётся из ReviewerLoadIndex
+    @Transactional
+    public PullRequestReassignResponse reassignReviewerAutomatically(String prId, String oldReviewerId) {
+        log.info("Reassigning reviewer automatically for PR: prId={}, oldReviewer={}", prId, oldReviewerId);
+
+        PullRequest pullRequest = pullRequestJdbcRepository.findWithReviewerTeams(prId)
+                .orElseThrow(() -> notFoundForReassign(prId));
+
+        if (pullRequest.getStatus() == PullRequestStatus.MERGED) {
+            log.warn("Cannot reassign reviewer on merged PR {}", prId);
+            throw new ApiException(ErrorCode.PR_MERGED, "cannot reassign on merged PR", ErrorCode.ErrorCategory.CONFLICT);
+        }
+
+        AssignedReviewer oldReviewer = pullRequest.getAssignedReviewers().stream()
+                .filter(ar -> ar.getUserId().equals(oldReviewerId))
+                .findFirst()
+                .orElseThrow(() -> {
+                    log.warn("Reviewer {} not assigned to PR {}", oldReviewerId, prId);
+                    return new ApiException(ErrorCode.NOT_FOUND, "Reviewer not assigned to this PR", ErrorCode.ErrorCategory.CONFLICT);
+                });
+
+        Set<String> excludedUserIds = new HashSet<>();
+        excludedUserIds.add(pullRequest.getAuthorId());
+        pullRequest.getAssignedReviewers().forEach(ar -> excludedUserIds.add(ar.getUserId()));
+
+        List<String> candidates = reviewerLoadIndex.pickReviewers(oldReviewer.getUser().getTeamName(), excludedUserIds, 1);
+        if (candidates.isEmpty()) {
+            log.warn("No replacement candidate for reviewer {} on PR {}", oldReviewerId, prId);
+            throw new ApiException(
+                    ErrorCode.NO_CANDIDATE,
+                    "no active replacement candidate in team",
+                    ErrorCode.ErrorCategory.CONFLICT
+            );
+        }
+        String newReviewerId = candidates.get(0);
+
+        // 0 строк - PR слили или ревьюверов PR изменили параллельно после чтения
+        if (pullRequestJdbcRepository.replaceOpenReviewer(prId, oldReviewerId, newReviewerId) == 0) {
+            if (pullRequestJdbcRepository.findStatus(prId).orElse(PullRequestStatus.MERGED) == PullRequestStatus.MERGED) {
+                log.warn("PR {} merged concurrently, reviewer {} not replaced", prId, oldReviewerId);
+                throw new ApiException(ErrorCode.PR_MERGED, "cannot reassign on merged PR", ErrorCode.ErrorCategory.CONFLICT);
+            }
+            log.warn("Reviewers of PR {} changed concurrently, reviewer {} not replaced", prId, oldReviewerId);
+            throw new ApiException(ErrorCode.NOT_FOUND, "Reviewer not assigned to this PR", ErrorCode.ErrorCategory.CONFLICT);
+        }
+
+        oldReviewer.setUserId(newReviewerId);
+        oldReviewer.setUser(null);
+        eventPublisher.publishEvent(ReviewersChangedEvent.reassigned(prId, oldReviewerId, newReviewerId));
+        log.info("Reassigned reviewer: old={}, new={}, PR={}", oldReviewerId, newReviewerId, prId);
+
+        return PullRequestReassignResponse.of(pullRequest, newReviewerId);
     }
 
+    // PR нет в рабочих таблицах: если он в архиве, то он слит
+    private ApiException notFoundForReassign(String prId) {
+        if (pullRequestRepository.existsByPullRequestId(prId)) {
+            log.warn("Cannot reassign reviewer on archived PR {}", prId);
+            return new ApiException(ErrorCode.PR_MERGED, "cannot reassign on merged PR", ErrorCode.ErrorCategory.CONFLICT);
+        }
+        return new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT);
+    }
+
+    // Один запрос на страницу; limit + 1 строка нужна, чтобы узнать, есть ли следующая страница
+    @ReplicaRead
+    @Transactional(readOnly = true)
+    public PullRequestSearchResponse searchPullRequests(PullRequestJdbcRepository.SearchFilter filter, int limit, String cursor) {
+        log.debug("Searching pull requests: filter={}, limit={}", filter, limit);
+
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        List<PullRequestResponse> pullRequests = pullRequestJdbcRepository.searchPullRequests(
+                filter,
+                after != null ? after.getCreatedAt() : null,
+                after != null ? after.getPullRequestId() : null,
+                limit + 1);
+
+        String nextCursor = null;
+        if (pullRequests.size() > limit) {
+            pullRequests = pullRequests.subList(0, limit);
+            PullRequestResponse last = pullRequests.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getPrId()).encode();
+        }
+
+        return PullRequestSearchResponse.builder()
+                .pullRequests(pullRequests)
+                .nextCursor(nextCursor)
+                .build();
+    }
 
+    // Слитые PR, перенесённые в архив, ищутся только с includeArchived
     @Transactional(readOnly = true)
-    public PullRequest getPullRequestById(String prId) {
-        log.debug("Fetching pull request by ID: {}", prId);
-        return pullRequestRepository.findByPullRequestId(prId)
+    public PullRequest getPullRequestById(String prId, boolean includeArchived) {
+        log.debug("Fetching pull request by ID: {}, includeArchived={}", prId, includeArchived);
+        return pullRequestJdbcRepository.findWithReviewerTeams(prId)
+                .or(() -> includeArchived ? pullRequestJdbcRepository.findArchived(prId) : Optional.empty())
                 .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT));
     }
 
@@ -0,0 +1,73 @@
+package org.example.avitotech.service;
+
+import org.example.avitotech.event.ListenerOrder;
+import org.example.avitotech.event.PullRequestsArchivedEvent;
+import org.example.avitotech.event.PullRequestsMergedEvent;
+import org.example.avitotech.event.ReviewersChangedEvent;
+import org.example.avitotech.event.UsersChangedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Версии команд и списков ревью пользователей для ETag. Увеличиваются по событиям после коммита,
+// поэтому версию нужно читать до чтения данных. Счётчики живут в памяти одного экземпляра:
+// при нескольких экземплярах записи через соседний экземпляр здесь не видны
+@Component
+public class ResourceVersions {
+
+    // Отличает ETag разных запусков, чтобы после рестарта старые версии не совпали с новыми
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final Map<String, Long> teams = new ConcurrentHashMap<>();
+    private final Map<String, Long> inboxes = new ConcurrentHashMap<>();
+
+    // Замена ревьювера меняет список reviewers у PR во входящих всех его ревьюверов, а они
+    // в событии не перечислены; замены редки, поэтому такая операция сбрасывает все входящие
+    private final AtomicLong reassignments = new AtomicLong();
+
+    public String teamETag(String teamName) {
+        return "\"" + epoch + "-" + teams.getOrDefault(teamName, 0L) + "\"";
+    }
+
+    public String reviewInboxETag(String userId) {
+        return "\"" + epoch + "-" + inboxes.getOrDefault(userId, 0L) + "-" + reassignments.get() + "\"";
+    }
+
+    @Order(ListenerOrder.RESOURCE_VERSIONS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        bump(teams, event.getTeamNames());
+        bump(inboxes, event.getUserIds());
+    }
+
+    @Order(ListenerOrder.RESOURCE_VERSIONS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewersChanged(ReviewersChangedEvent event) {
+        event.getAssigned().values().forEach(userIds -> bump(inboxes, userIds));
+        if (!event.getUnassigned().isEmpty()) {
+            reassignments.incrementAndGet();
+        }
+    }
+
+    @Order(ListenerOrder.RESOURCE_VERSIONS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPullRequestsMerged(PullRequestsMergedEvent event) {
+        event.getReviewersByPullRequest().values().forEach(userIds -> bump(inboxes, userIds));
+    }
+
+    @Order(ListenerOrder.RESOURCE_VERSIONS)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPullRequestsArchived(PullRequestsArchivedEvent event) {
+        bump(inboxes, event.getReviewerIds());
+    }
+
+    private static void bump(Map<String, Long> versions, Collection<String> keys) {
+        keys.forEach(key -> versions.merge(key, 1L, Long::sum));
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.avitotech.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.event.ListenerOrder;
+import org.example.avitotech.event.PullRequestsMergedEvent;
+import org.example.avitotech.event.ReviewersChangedEvent;
+import org.example.avitotech.event.UsersChangedEvent;
+import org.example.avitotech.repository.UserJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Активные участники команд и число их открытых ревью. Команда загружается из БД одним запросом
+// при первом обращении и перечитывается раз в refresh-interval, между загрузками счётчики
+// обновляются по событиям после коммита. Одновременные обращения к команде ждут одну загрузку;
+// она идёт вне блокировок ConcurrentHashMap и не держит чужие команды того же сегмента
+@Slf4j
+@Component
+public class ReviewerLoadIndex {
+
+    // Сколько равнозагруженных кандидатов рассматривается для случайного выбора
+    private static final int MAX_TIE_CANDIDATES = 32;
+
+    private final UserJdbcRepository userJdbcRepository;
+    private final long refreshIntervalNanos;
+
+    private final Map<String, CompletableFuture<TeamLoad>> teams = new ConcurrentHashMap<>();
+    private final Map<String, String> userTeams = new ConcurrentHashMap<>();
+
+    public ReviewerLoadIndex(UserJdbcRepository userJdbcRepository,
+                             @Value("${app.reviewer-load-index.refresh-interval:PT5M}") Duration refreshInterval) {
+        this.userJdbcRepository = userJdbcRepository;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    // Выбирает до limit активных участников команды с наименьшим числом открытых ревью
+    public List<String> pickReviewers(String teamName, Set<String> excludedUserIds, int limit) {
+        return pickReviewers(teamName, excludedUserIds, limit, Map.of());
+    }
+
+    // pending - назначения текущей транзакции, которые ещё не попали в индекс (он меняется только
+    // после коммита): user_id -> сколько ревью добавить к его нагрузке
+    public List<String> pickReviewers(String teamName, Set<String> excludedUserIds, int limit, Map<String, Integer> pending) {
+        return team(teamName).pick(excludedUserIds, limit, pending);
+    }
+
+    @Order(ListenerOrder.APPLICATION_CACHES)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        event.getTeamNames().forEach(teams::remove);
+        event.getUserIds().forEach(userTeams::remove);
+    }
+
+    @Order(ListenerOrder.APPLICATION_CACHES)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewersChanged(ReviewersChangedEvent event) {
+        event.getAssigned().values().forEach(userIds -> adjust(userIds, 1));
+        event.getUnassigned().values().forEach(userIds -> adjust(userIds, -1));
+    }
+
+    @Order(ListenerOrder.APPLICATION_CACHES)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPullRequestsMerged(PullRequestsMergedEvent event) {
+        event.getReviewersByPullRequest().values().forEach(userIds -> adjust(userIds, -1));
+    }
+
+    // Загружает команду поток, чья загрузка попала в teams; остальные ждут её результат.
+    // Неудачная загрузка убирается из teams, и ожидающие пробуют загрузить сами
+    private TeamLoad team(String teamName) {
+        while (true) {
+            CompletableFuture<TeamLoad> current = teams.get(teamName);
+            if (current != null && isFresh(current)) {
+                try {
+                    return current.join();
+                } catch (CompletionException ex) {
+                    continue;
+                }
+            }
+
+            CompletableFuture<TeamLoad> loading = new CompletableFuture<>();
+            boolean owner = current == null
+                    ? teams.putIfAbsent(teamName, loading) == null
+                    : teams.replace(teamName, current, loading);
+            if (!owner) {
+                continue;
+            }
+            try {
+                TeamLoad load = load(teamName);
+                loading.complete(load);
+                return load;
+            } catch (RuntimeException ex) {
+                teams.remove(teamName, loading);
+                loading.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+    }
+
+    // Идущая загрузка считается свежей: её результат новее текущего
+    private boolean isFresh(CompletableFuture<TeamLoad> load) {
+        return !load.isDone() || load.isCompletedExceptionally() || !load.join().isStale(refreshIntervalNanos);
+    }
+
+    private TeamLoad load(String teamName) {
+        Map<String, Integer> openReviews = userJdbcRepository.findActiveMemberOpenReviewCounts(teamName);
+        openReviews.keySet().forEach(userId -> userTeams.put(userId, teamName));
+        log.debug("Reviewer load loaded for team {}: {} active members", teamName, openReviews.size());
+        return new TeamLoad(openReviews);
+    }
+
+    private void adjust(Collection<String> userIds, int delta) {
+        for (String userId : userIds) {
+            String teamName = userTeams.get(userId);
+            CompletableFuture<TeamLoad> loaded = teamName != null ? teams.get(teamName) : null;
+            // Команда ещё загружается - изменение пропускается; расхождение исправит перезагрузка через refresh-interval
+            TeamLoad load = loaded != null && loaded.isDone() && !loaded.isCompletedExceptionally() ? loaded.join() : null;
+            if (load != null) {
+                load.adjust(userId, delta);
+            }
+        }
+    }
+
+    private static final class TeamLoad {
+
+        private static final Comparator<Map.Entry<String, Integer>> BY_LOAD =
+                Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey());
+
+        private final long loadedAt = System.nanoTime();
+        private final Map<String, Integer> openReviews;
+        private final TreeSet<Map.Entry<String, Integer>> byLoad = new TreeSet<>(BY_LOAD);
+
+        private TeamLoad(Map<String, Integer> openReviews) {
+            this.openReviews = new HashMap<>(openReviews);
+            openReviews.forEach((userId, count) -> byLoad.add(Map.entry(userId, count)));
+        }
+
+        boolean isStale(long refreshIntervalNanos) {
+            return System.nanoTime() - loadedAt > refreshIntervalNanos;
+        }
+
+        // Участники обходятся по возрастанию нагрузки из индекса; с pending нагрузка только растёт,
+        // поэтому обход останавливается, когда нагрузка из индекса превышает limit-ю наименьшую с учётом pending
+        synchronized List<String> pick(Set<String> excludedUserIds, int limit, Map<String, Integer> pending) {
+            if (limit <= 0) {
+                return List.of();
+            }
+
+            List<Map.Entry<String, Integer>> eligible = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : byLoad) {
+                if (excludedUserIds.contains(entry.getKey())) {
+                    continue;
+                }
+                if (eligible.size() >= limit
+                        && (entry.getValue() > eligible.get(limit - 1).getValue()
+                        || eligible.size() >= MAX_TIE_CANDIDATES + pending.size())) {
+                    break;
+                }
+                Map.Entry<String, Integer> effective = Map.entry(entry.getKey(),
+                        entry.getValue() + pending.getOrDefault(entry.getKey(), 0));
+                int position = Collections.binarySearch(eligible, effective, BY_LOAD);
+                eligible.add(-position - 1, effective);
+            }
+
+            if (eligible.size() <= limit) {
+                return eligible.stream().map(Map.Entry::getKey).toList();
+            }
+
+            // Среди кандидатов с одинаковой нагрузкой на границе выбираем случайно,
+            // чтобы параллельные создания PR не назначали одних и тех же людей
+            int boundary = eligible.get(limit - 1).getValue();
+            List<String> picked = new ArrayList<>();
+            List<String> ties = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : eligible) {
+                if (entry.getValue() < boundary) {
+                    picked.add(entry.getKey());
+                } else if (entry.getValue() == boundary) {
+                    ties.add(entry.getKey());
+                }
+            }
+            Collections.shuffle(ties, ThreadLocalRandom.current());
+            picked.addAll(ties.subList(0, limit - picked.size()));
+            return picked;
+        }
+
+        synchronized void adjust(String userId, int delta) {
+            Integer current = openReviews.get(userId);
+            if (current == null) {
+                return;
+            }
+            int updated = Math.max(current + delta, 0);
+            byLoad.remove(Map.entry(userId, current));
+            byLoad.add(Map.entry(userId, updated));
+            openReviews.put(userId, updated);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.avitotech.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.event.ListenerOrder;
+import org.example.avitotech.event.UsersChangedEvent;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.model.User;
+import org.example.avitotech.repository.TeamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+// Снимки состава команд. Caffeine вытесняет по частоте обращений (W-TinyLFU), а одновременные
+// промахи по одной команде ждут единственную загрузку. Загрузка идёт в потоке первого промаха
+// (там же учитываются её SQL-запросы), но вне блокировок кэша: в кэше лежит future, остальные
+// ждут его. Отсутствующие команды тоже кэшируются: создание команды публикует UsersChangedEvent
+// и снимает такую запись
+@Slf4j
+@Component
+public class TeamCache {
+
+    private final TeamRepository teamRepository;
+    private final AsyncCache<String, Optional<TeamSnapshot>> snapshots;
+
+    @Autowired
+    public TeamCache(TeamRepository teamRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.team-cache.max-size:10000}") long maxSize,
+                     @Value("${app.team-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.teamRepository = teamRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                // Страховка от изменений в обход приложения
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "teams");
+    }
+
+    public Optional<TeamSnapshot> get(String teamName) {
+        CompletableFuture<Optional<TeamSnapshot>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<TeamSnapshot>> snapshot = snapshots.get(teamName, (name, executor) -> loading);
+        if (snapshot == loading) {
+            // Неудачную загрузку Caffeine убирает из кэша сам
+            try {
+                loading.complete(load(teamName));
+            } catch (RuntimeException ex) {
+                loading.completeExceptionally(ex);
+            }
+        }
+
+        try {
+            return snapshot.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Order(ListenerOrder.APPLICATION_CACHES)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        snapshots.synchronous().invalidateAll(event.getTeamNames());
+    }
+
+    private Optional<TeamSnapshot> load(String teamName) {
+        log.debug("Loading team snapshot: {}", teamName);
+        return teamRepository.findByTeamNameWithMembers(teamName).map(TeamSnapshot::of);
+    }
+
+    // Неизменяемый снимок; наружу отдаются копии участников, не связанные с persistence context
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class TeamSnapshot {
+        @Getter
+        private final String teamName;
+        private final List<User> members;
+        @Getter
+        private final int activeMemberCount;
+
+        static TeamSnapshot of(Team team) {
+            List<User> members = team.getMembers().stream().map(TeamSnapshot::copy).toList();
+            int active = (int) members.stream().filter(member -> Boolean.TRUE.equals(member.getIsActive())).count();
+            return new TeamSnapshot(team.getTeamName(), members, active);
+        }
+
+        public Team toTeam() {
+            return Team.builder()
+                    .teamName(teamName)
+                    .members(members.stream().map(TeamSnapshot::copy).collect(Collectors.toList()))
+                    .build();
+        }
+
+        public List<User> members() {
+            return members.stream().map(TeamSnapshot::copy).toList();
+        }
+
+        public List<User> activeMembers() {
+            return members.stream()
+                    .filter(member -> Boolean.TRUE.equals(member.getIsActive()))
+                    .map(TeamSnapshot::copy)
+                    .toList();
+        }
+
+        private static User copy(User user) {
+            return User.builder()
+                    .userId(user.getUserId())
+                    .username(user.getUsername())
+                    .teamName(user.getTeamName())
+                    .isActive(user.getIsActive())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.avitotech.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.dto.TeamImportResponse;
+import org.example.avitotech.dto.TeamRequest;
+import org.example.avitotech.event.UsersChangedEvent;
+import org.example.avitotech.exception.ApiException;
+import org.example.avitotech.exception.ErrorCode;
+import org.example.avitotech.model.User;
+import org.example.avitotech.repository.TeamJdbcRepository;
+import org.example.avitotech.repository.UserJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Импорт команд из JSON-массива или NDJSON в формате /team/add. Команды читаются из потока по одной,
+// участники копятся до batch-size и сохраняются пакетом в своей транзакции, поэтому память зависит от
+// размера пакета и самой большой команды, а не от размера файла. Импорт только создаёт и обновляет:
+// пользователи, которых нет в файле, не меняются. Ошибка в середине файла оставляет уже сохранённые
+// пакеты; повторный импорт того же файла их не меняет
+@Slf4j
+@Service
+public class TeamImportService {
+
+    private final TeamJdbcRepository teamJdbcRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+
+    public TeamImportService(TeamJdbcRepository teamJdbcRepository,
+                             UserJdbcRepository userJdbcRepository,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.team-import.batch-size:1000}") int batchSize) {
+        this.teamJdbcRepository = teamJdbcRepository;
+        this.userJdbcRepository = userJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public TeamImportResponse importTeams(InputStream body) throws IOException {
+        long started = System.nanoTime();
+        TeamImportResponse result = new TeamImportResponse();
+        Batch batch = new Batch();
+
+        // Корневой массив разворачивается, а NDJSON читается как последовательность корневых объектов
+        try (MappingIterator<TeamRequest> teams = objectMapper.readerFor(TeamRequest.class).readValues(body)) {
+            while (teams.hasNextValue()) {
+                TeamRequest team = teams.nextValue();
+                result.setTeams(result.getTeams() + 1);
+                validate(team, result.getTeams());
+
+                batch.add(team);
+                if (batch.users.size() >= batchSize) {
+                    flush(batch, result);
+                    batch = new Batch();
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            JsonLocation location = ex.getLocation();
+            throw new ApiException(ErrorCode.BAD_REQUEST,
+                    String.format("Invalid import body at line %d, column %d: %s",
+                            location != null ? location.getLineNr() : -1,
+                            location != null ? location.getColumnNr() : -1,
+                            ex.getOriginalMessage()),
+                    ErrorCode.ErrorCategory.CLIENT_ERROR);
+        }
+        flush(batch, result);
+
+        log.info("Imported {} teams in {} ms: {} teams created, users {} created, {} updated, {} unchanged",
+                result.getTeams(), (System.nanoTime() - started) / 1_000_000, result.getTeamsCreated(),
+                result.getUsersCreated(), result.getUsersUpdated(), result.getUsersUnchanged());
+        return result;
+    }
+
+    private void validate(TeamRequest team, long position) {
+        Set<ConstraintViolation<TeamRequest>> violations = validator.validate(team);
+        if (!violations.isEmpty()) {
+            throw new ApiException(ErrorCode.BAD_REQUEST,
+                    String.format("Team #%d (%s): %s", position, team.getTeamName(), violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", "))),
+                    ErrorCode.ErrorCategory.CLIENT_ERROR);
+        }
+    }
+
+    // Пользователи, чьё состояние совпадает с БД, не пишутся; события публикуются только для
+    // команд, где что-то изменилось, и для команд, из которых ушли участники
+    private void flush(Batch batch, TeamImportResponse result) {
+        if (batch.users.isEmpty()) {
+            return;
+        }
+
+        batchTransaction.executeWithoutResult(status -> {
+            int teamsCreated = teamJdbcRepository.insertMissingTeams(batch.teamNames);
+
+            Map<String, User> existing = userJdbcRepository.findByUserIds(batch.users.keySet());
+            Map<String, List<String>> changedByTeam = new LinkedHashMap<>();
+            Set<String> leftTeams = new HashSet<>();
+            List<User> changed = new ArrayList<>();
+            for (User user : batch.users.values()) {
+                User current = existing.get(user.getUserId());
+                if (current == null) {
+                    result.setUsersCreated(result.getUsersCreated() + 1);
+                } else if (!sameState(current, user)) {
+                    result.setUsersUpdated(result.getUsersUpdated() + 1);
+                    if (!current.getTeamName().equals(user.getTeamName())) {
+                        leftTeams.add(current.getTeamName());
+                    }
+                } else {
+                    result.setUsersUnchanged(result.getUsersUnchanged() + 1);
+                    continue;
+                }
+                changed.add(user);
+                changedByTeam.computeIfAbsent(user.getTeamName(), teamName -> new ArrayList<>()).add(user.getUserId());
+            }
+            userJdbcRepository.upsertUsers(changed);
+            result.setTeamsCreated(result.getTeamsCreated() + teamsCreated);
+
+            // Событие с одной командой переносит её участников в статистике
+            changedByTeam.forEach((teamName, userIds) ->
+                    eventPublisher.publishEvent(UsersChangedEvent.of(userIds, List.of(teamName))));
+            leftTeams.removeAll(changedByTeam.keySet());
+            if (!leftTeams.isEmpty()) {
+                eventPublisher.publishEvent(UsersChangedEvent.of(List.of(), leftTeams));
+            }
+        });
+    }
+
+    private static boolean sameState(User current, User imported) {
+        return Objects.equals(current.getUsername(), imported.getUsername())
+                && Objects.equals(current.getTeamName(), imported.getTeamName())
+                && Objects.equals(current.getIsActive(), imported.getIsActive());
+    }
+
+    // Участники пакета по user_id: при повторе в файле действует последнее вхождение
+    private static final class Batch {
+        private final Set<String> teamNames = new HashSet<>();
+        private final Map<String, User> users = new LinkedHashMap<>();
+
+        void add(TeamRequest team) {
+            teamNames.add(team.getTeamName());
+            team.getMembers().forEach(member -> users.put(member.getUserId(), member.toEntity(team.getTeamName())));
+        }
+    }
+}
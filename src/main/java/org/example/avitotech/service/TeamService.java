@@ -1,17 +1,29 @@
 package org.example.avitotech.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.dto.TeamSyncResponse;
+import org.example.avitotech.event.UsersChangedEvent;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.model.Team;
 import org.example.avitotech.model.User;
+import org.example.avitotech.repository.TeamJdbcRepository;
 import org.example.avitotech.repository.TeamRepository;
+import org.example.avitotech.repository.UserJdbcRepository;
 import org.example.avitotech.repository.UserRepository;
+import org.example.avitotech.service.UserService.ReviewReassignment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -19,11 +31,27 @@ public class TeamService {
 
     private final TeamRepository teamRepository;
     private final UserRepository userRepository;
+    private final TeamJdbcRepository teamJdbcRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final UserService userService;
+    private final TeamCache teamCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TeamService(TeamRepository teamRepository, UserRepository userRepository) {
+    public TeamService(TeamRepository teamRepository,
+                       UserRepository userRepository,
+                       TeamJdbcRepository teamJdbcRepository,
+                       UserJdbcRepository userJdbcRepository,
+                       UserService userService,
+                       TeamCache teamCache,
+                       ApplicationEventPublisher eventPublisher) {
         this.teamRepository = teamRepository;
         this.userRepository = userRepository;
+        this.teamJdbcRepository = teamJdbcRepository;
+        this.userJdbcRepository = userJdbcRepository;
+        this.userService = userService;
+        this.teamCache = teamCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -47,11 +75,107 @@ public class TeamService {
             userRepository.save(member);
         }
 
+        eventPublisher.publishEvent(UsersChangedEvent.of(
+                members.stream().map(User::getUserId).toList(),
+                List.of(savedTeam.getTeamName())));
+
         return teamRepository.findByTeamNameWithMembers(savedTeam.getTeamName())
                 .orElseThrow(() -> new ApiException(ErrorCode.NOT_FOUND));
     }
 
-    @Transactional(readOnly = true)
+    // Приводит состав команды к переданному списку. Текущие участники и пользователи из списка читаются
+    // одним запросом, пишутся только отличия: новые пользователи, переносы из других команд, смена имени
+    // или активности и деактивация участников, которых нет в списке (пользователи не удаляются).
+    // Нет отличий - пользователи не пишутся. Синхронизации одной команды идут по очереди за блокировкой
+    // строки команды. Открытые ревью ставших неактивными переназначаются как в /users/deactivate
+    @Transactional
+    public TeamSyncResponse syncTeam(Team team) {
+        String teamName = team.getTeamName();
+        log.info("Syncing team {} to {} members", teamName, team.getMembers().size());
+
+        Map<String, User> desired = new LinkedHashMap<>();
+        for (User member : team.getMembers()) {
+            member.setTeamName(teamName);
+            if (desired.put(member.getUserId(), member) != null) {
+                throw new ApiException(ErrorCode.BAD_REQUEST,
+                        "Duplicate user_id in members: " + member.getUserId(), ErrorCode.ErrorCategory.CLIENT_ERROR);
+            }
+        }
+
+        boolean teamCreated = teamJdbcRepository.createOrLockTeam(teamName);
+        Map<String, User> current = userJdbcRepository.findTeamMembersAndUsers(teamName, desired.keySet());
+
+        List<User> written = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        List<String> moved = new ArrayList<>();
+        List<String> updated = new ArrayList<>();
+        Set<String> leftTeams = new HashSet<>();
+        Set<String> becameInactive = new HashSet<>();
+        int unchanged = 0;
+        for (User member : desired.values()) {
+            User existing = current.get(member.getUserId());
+            // Перенесённый с is_active=false тоже становится неактивным
+            if (existing != null && Boolean.TRUE.equals(existing.getIsActive()) && !Boolean.TRUE.equals(member.getIsActive())) {
+                becameInactive.add(member.getUserId());
+            }
+            if (existing == null) {
+                added.add(member.getUserId());
+            } else if (!teamName.equals(existing.getTeamName())) {
+                // Ревью в прежней команде остаются за перенесённым, как при импорте
+                moved.add(member.getUserId());
+                leftTeams.add(existing.getTeamName());
+            } else if (!Objects.equals(existing.getUsername(), member.getUsername())
+                    || !Objects.equals(existing.getIsActive(), member.getIsActive())) {
+                updated.add(member.getUserId());
+            } else {
+                unchanged++;
+                continue;
+            }
+            written.add(member);
+        }
+
+        List<String> missing = current.values().stream()
+                .filter(user -> teamName.equals(user.getTeamName())
+                        && !desired.containsKey(user.getUserId())
+                        && Boolean.TRUE.equals(user.getIsActive()))
+                .map(User::getUserId)
+                .toList();
+
+        userJdbcRepository.upsertUsers(written);
+        Set<String> deactivated = userJdbcRepository.deactivateTeamMembers(teamName, missing).keySet();
+        becameInactive.addAll(deactivated);
+
+        List<String> changed = new ArrayList<>(deactivated);
+        written.forEach(user -> changed.add(user.getUserId()));
+        // Событие с одной командой переносит её участников в статистике
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(UsersChangedEvent.of(changed, List.of(teamName)));
+        }
+        if (!leftTeams.isEmpty()) {
+            eventPublisher.publishEvent(UsersChangedEvent.of(List.of(), leftTeams));
+        }
+        ReviewReassignment reassignment = becameInactive.isEmpty()
+                ? new ReviewReassignment(0, 0)
+                : userService.reassignOpenReviews(becameInactive);
+
+        log.info("Team {} synced: {} added, {} moved, {} updated, {} deactivated, {} unchanged, {} open reviews reassigned",
+                teamName, added.size(), moved.size(), updated.size(), deactivated.size(), unchanged,
+                reassignment.getReassigned());
+
+        return TeamSyncResponse.builder()
+                .teamName(teamName)
+                .teamCreated(teamCreated)
+                .added(added.stream().sorted().toList())
+                .moved(moved.stream().sorted().toList())
+                .updated(updated.stream().sorted().toList())
+                .deactivated(deactivated.stream().sorted().toList())
+                .unchanged(unchanged)
+                .reassignedReviews(reassignment.getReassigned())
+                .reviewsWithoutCandidate(reassignment.getWithoutCandidate())
+                .build();
+    }
+
+    // Чтения состава команды идут через TeamCache; транзакция открывается только при загрузке снимка
     public Team getTeamByName(String teamName) {
         log.debug("Fetching team: {}", teamName);
 
@@ -60,12 +184,7 @@ public class TeamService {
             throw new ApiException(ErrorCode.NOT_FOUND, "Team name cannot be empty", ErrorCode.ErrorCategory.CONFLICT);
         }
 
-        Team team = teamRepository.findByTeamNameWithMembers(teamName)
-                .orElseThrow(() -> {
-                    log.warn("Team not found: {}", teamName);
-                    return new ApiException(ErrorCode.NOT_FOUND,
-                            String.format("Team '%s' not found", teamName), ErrorCode.ErrorCategory.CONFLICT);
-                });
+        Team team = snapshot(teamName).toTeam();
 
         log.debug("Team fetched successfully: {} with {} members",
                 teamName, team.getMembers().size());
@@ -73,66 +192,51 @@ public class TeamService {
         return team;
     }
 
-    @Transactional(readOnly = true)
     public List<User> getActiveTeamMembers(String teamName) {
         log.debug("Fetching active members of team: {}", teamName);
 
-        if (!teamRepository.existsByTeamName(teamName)) {
-            log.warn("Team not found: {}", teamName);
-            throw new ApiException(ErrorCode.NOT_FOUND,
-                    String.format("Team '%s' not found", teamName), ErrorCode.ErrorCategory.CONFLICT);
-        }
-
-        List<User> activeMembers = userRepository.findActiveUsersByTeamName(teamName);
+        List<User> activeMembers = snapshot(teamName).activeMembers();
         log.debug("Found {} active members in team: {}", activeMembers.size(), teamName);
 
         return activeMembers;
     }
 
-    @Transactional(readOnly = true)
     public List<User> getAllTeamMembers(String teamName) {
         log.debug("Fetching all members of team: {}", teamName);
 
-        // Проверяем, что команда существует
-        if (!teamRepository.existsByTeamName(teamName)) {
-            log.warn("Team not found: {}", teamName);
-            throw new ApiException(ErrorCode.NOT_FOUND,
-                    String.format("Team '%s' not found", teamName), ErrorCode.ErrorCategory.CONFLICT);
-        }
-
-        List<User> members = userRepository.findByTeamName(teamName);
+        List<User> members = snapshot(teamName).members();
         log.debug("Found {} members in team: {}", members.size(), teamName);
 
         return members;
     }
 
-    @Transactional(readOnly = true)
     public boolean teamExists(String teamName) {
-        return teamRepository.existsByTeamName(teamName);
+        return teamCache.get(teamName).isPresent();
     }
 
-    @Transactional(readOnly = true)
     public int getActiveTeamMembersCount(String teamName) {
-        if (!teamRepository.existsByTeamName(teamName)) {
-            throw new ApiException(ErrorCode.NOT_FOUND,
-                    String.format("Team '%s' not found", teamName), ErrorCode.ErrorCategory.CONFLICT);
-        }
-
-        return (int) userRepository.findActiveUsersByTeamName(teamName).size();
+        return snapshot(teamName).getActiveMemberCount();
     }
 
     @Transactional(readOnly = true)
     public List<User> getReviewersInTeam(String teamName) {
         log.debug("Fetching reviewers in team: {}", teamName);
 
-        if (!teamRepository.existsByTeamName(teamName)) {
-            throw new ApiException(ErrorCode.NOT_FOUND,
-                    String.format("Team '%s' not found", teamName), ErrorCode.ErrorCategory.CONFLICT);
-        }
+        // Проверяем, что команда существует
+        snapshot(teamName);
 
         List<User> reviewers = userRepository.findReviewersInTeam(teamName);
         log.debug("Found {} reviewers in team: {}", reviewers.size(), teamName);
 
         return reviewers;
     }
-}
\ No newline at end of file
+
+    private TeamCache.TeamSnapshot snapshot(String teamName) {
+        return teamCache.get(teamName)
+                .orElseThrow(() -> {
+                    log.warn("Team not found: {}", teamName);
+                    return new ApiException(ErrorCode.NOT_FOUND,
+                            String.format("Team '%s' not found", teamName), ErrorCode.ErrorCategory.CONFLICT);
+                });
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.avitotech.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.avitotech.event.ListenerOrder;
+import org.example.avitotech.event.UsersChangedEvent;
+import org.example.avitotech.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class UserExistenceIndex {
+
+    private final UserRepository userRepository;
+
+    private final Set<String> knownUserIds = ConcurrentHashMap.newKeySet();
+
+    public UserExistenceIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<String> userIds = userRepository.findAllUserIds();
+        knownUserIds.addAll(userIds);
+        log.info("User existence index loaded: {} users", userIds.size());
+    }
+
+    // Пользователи не удаляются, поэтому положительный ответ индекса окончательный.
+    // Промах проверяется в БД: пользователя могли создать на другом инстансе
+    public boolean exists(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (knownUserIds.contains(userId)) {
+            return true;
+        }
+        if (userRepository.existsByUserId(userId)) {
+            knownUserIds.add(userId);
+            return true;
+        }
+        return false;
+    }
+
+    public Set<String> findMissing(Collection<String> userIds) {
+        List<String> unknown = new ArrayList<>();
+        for (String userId : userIds) {
+            if (!knownUserIds.contains(userId)) {
+                unknown.add(userId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return Set.of();
+        }
+
+        List<String> found = userRepository.findExistingUserIds(unknown);
+        knownUserIds.addAll(found);
+
+        Set<String> missing = new LinkedHashSet<>(unknown);
+        found.forEach(missing::remove);
+        return missing;
+    }
+
+    @Order(ListenerOrder.APPLICATION_CACHES)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersChanged(UsersChangedEvent event) {
+        knownUserIds.addAll(event.getUserIds());
+    }
+}
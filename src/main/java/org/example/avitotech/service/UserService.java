@@ -1,29 +1,54 @@
 package org.example.avitotech.service;
 
+import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.dto.UserDeactivateResponse;
+import org.example.avitotech.dto.UserReviewResponse;
+import org.example.avitotech.event.ReviewersChangedEvent;
+import org.example.avitotech.event.UsersChangedEvent;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
-import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
 import org.example.avitotech.model.User;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.repository.PullRequestJdbcRepository.ReviewerReplacement;
+import org.example.avitotech.repository.TeamRepository;
+import org.example.avitotech.repository.UserJdbcRepository;
 import org.example.avitotech.repository.UserRepository;
-import org.example.avitotech.repository.PullRequestRepository;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PullRequestRepository pullRequestRepository;
+    private final TeamRepository teamRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final PullRequestJdbcRepository pullRequestJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UserService(UserRepository userRepository, PullRequestRepository pullRequestRepository) {
+    public UserService(UserRepository userRepository,
+                       TeamRepository teamRepository,
+                       UserJdbcRepository userJdbcRepository,
+                       PullRequestJdbcRepository pullRequestJdbcRepository,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
-        this.pullRequestRepository = pullRequestRepository;
+        this.teamRepository = teamRepository;
+        this.userJdbcRepository = userJdbcRepository;
+        this.pullRequestJdbcRepository = pullRequestJdbcRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -35,23 +60,110 @@ public class UserService {
 
         user.setIsActive(isActive);
         userRepository.save(user);
+        eventPublisher.publishEvent(UsersChangedEvent.of(List.of(userId), List.of(user.getTeamName())));
 
         log.info("User {} active status updated to {}", userId, isActive);
     }
 
-    @Transactional(readOnly = true)
-    public boolean userExists(String userId) {
-        return userRepository.existsByUserId(userId);
+    // Деактивация списка пользователей или всей команды. Открытые ревью деактивированных
+    // переназначаются в той же транзакции одним запросом, см. PullRequestJdbcRepository.reassignOpenReviews
+    @Transactional
+    public UserDeactivateResponse deactivateUsers(List<String> userIds, String teamName) {
+        log.info("Deactivating users: userIds={}, teamName={}", userIds, teamName);
+
+        Map<String, String> deactivated;
+        List<String> notFound = new ArrayList<>();
+        if (teamName != null) {
+            if (!teamRepository.existsByTeamName(teamName)) {
+                log.warn("Team not found: {}", teamName);
+                throw new ApiException(ErrorCode.NOT_FOUND, "Team not found", ErrorCode.ErrorCategory.CONFLICT);
+            }
+            deactivated = userJdbcRepository.deactivateTeam(teamName);
+        } else {
+            deactivated = userJdbcRepository.deactivateByUserIds(new LinkedHashSet<>(userIds));
+            new LinkedHashSet<>(userIds).stream()
+                    .filter(userId -> !deactivated.containsKey(userId))
+                    .forEach(notFound::add);
+        }
+
+        eventPublisher.publishEvent(UsersChangedEvent.of(deactivated.keySet(), deactivated.values()));
+        ReviewReassignment reassignment = reassignOpenReviews(deactivated.keySet());
+
+        log.info("Deactivated {} users, reassigned {} open reviews", deactivated.size(), reassignment.getReassigned());
+
+        return UserDeactivateResponse.builder()
+                .deactivated(deactivated.keySet().stream().sorted().toList())
+                .notFound(notFound)
+                .reassignedReviews(reassignment.getReassigned())
+                .reviewsWithoutCandidate(reassignment.getWithoutCandidate())
+                .build();
     }
 
+    // Переназначает открытые ревью деактивированных пользователей в текущей транзакции, см.
+    // PullRequestJdbcRepository.reassignOpenReviews. Вызывается после записи активности и состава команд
+    public ReviewReassignment reassignOpenReviews(Collection<String> userIds) {
+        List<ReviewerReplacement> replacements = pullRequestJdbcRepository.reassignOpenReviews(userIds);
+
+        Map<String, List<String>> assigned = new HashMap<>();
+        Map<String, List<String>> unassigned = new HashMap<>();
+        int withoutCandidate = 0;
+        for (ReviewerReplacement replacement : replacements) {
+            if (replacement.getNewReviewerId() == null) {
+                withoutCandidate++;
+                continue;
+            }
+            assigned.computeIfAbsent(replacement.getPullRequestId(), id -> new ArrayList<>()).add(replacement.getNewReviewerId());
+            unassigned.computeIfAbsent(replacement.getPullRequestId(), id -> new ArrayList<>()).add(replacement.getOldReviewerId());
+        }
+
+        eventPublisher.publishEvent(ReviewersChangedEvent.of(assigned, unassigned));
+        if (withoutCandidate > 0) {
+            log.warn("{} open reviews left on deactivated users: no active candidate in team", withoutCandidate);
+        }
+        return new ReviewReassignment(replacements.size() - withoutCandidate, withoutCandidate);
+    }
+
+    // Keyset-пагинация: в памяти держится только одна страница независимо от истории ревьювера.
+    // Проверка существования пользователя и выборка страницы - один запрос; архив - только по запросу
     @Transactional(readOnly = true)
-    public List<PullRequest> getUserPullRequests(String userId) {
-        log.debug("Fetching pull requests for reviewer: {}", userId);
+    public UserReviewResponse getUserPullRequests(String userId, PullRequestStatus status, int limit, String cursor,
+                                                  boolean includeArchived) {
+        log.debug("Fetching pull requests for reviewer: userId={}, status={}, limit={}, includeArchived={}",
+                userId, status, limit, includeArchived);
 
-        List<PullRequest> pullRequests = pullRequestRepository.findByReviewerId(userId);
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        List<PullRequestResponse> pullRequests = pullRequestJdbcRepository.findReviewInbox(
+                        userId,
+                        status,
+                        after != null ? after.getCreatedAt() : null,
+                        after != null ? after.getPullRequestId() : null,
+                        limit + 1,
+                        includeArchived)
+                .orElseThrow(() -> {
+                    log.warn("User not found: {}", userId);
+                    return new ApiException(ErrorCode.NOT_FOUND, "User not found", ErrorCode.ErrorCategory.CONFLICT);
+                });
+
+        String nextCursor = null;
+        if (pullRequests.size() > limit) {
+            pullRequests = pullRequests.subList(0, limit);
+            PullRequestResponse last = pullRequests.get(limit - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getPrId()).encode();
+        }
 
         log.debug("Found {} pull requests for reviewer: {}", pullRequests.size(), userId);
 
-        return pullRequests;
+        return UserReviewResponse.builder()
+                .userId(userId)
+                .pullRequests(pullRequests)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Value
+    public static class ReviewReassignment {
+        int reassigned;
+        // Открытые ревью, для которых в команде не нашлось активного кандидата
+        int withoutCandidate;
     }
 }
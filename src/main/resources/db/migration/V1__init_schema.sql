@@ -0,0 +1,36 @@
+-- Схема в том виде, в котором её создавал ddl-auto=update. На базах, созданных до миграций,
+-- этот скрипт не выполняется: они отмечаются версией 1 (spring.flyway.baseline-on-migrate)
+
+CREATE TABLE teams (
+    team_name VARCHAR(255) NOT NULL,
+    CONSTRAINT teams_pkey PRIMARY KEY (team_name)
+);
+
+CREATE TABLE users (
+    user_id   VARCHAR(255) NOT NULL,
+    username  VARCHAR(255) NOT NULL,
+    team_name VARCHAR(255) NOT NULL,
+    is_active BOOLEAN      NOT NULL,
+    CONSTRAINT users_pkey PRIMARY KEY (user_id),
+    CONSTRAINT fk_users_team_name FOREIGN KEY (team_name) REFERENCES teams (team_name)
+);
+
+CREATE TABLE pull_requests (
+    pull_request_id   VARCHAR(255) NOT NULL,
+    pull_request_name VARCHAR(255) NOT NULL,
+    author_id         VARCHAR(255) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    created_at        TIMESTAMP(6),
+    merged_at         TIMESTAMP(6),
+    CONSTRAINT pull_requests_pkey PRIMARY KEY (pull_request_id),
+    CONSTRAINT pull_requests_status_check CHECK (status IN ('OPEN', 'MERGED')),
+    CONSTRAINT fk_pull_requests_author_id FOREIGN KEY (author_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE assigned_reviewers (
+    pull_request_id VARCHAR(255) NOT NULL,
+    user_id         VARCHAR(255) NOT NULL,
+    CONSTRAINT assigned_reviewers_pkey PRIMARY KEY (pull_request_id, user_id),
+    CONSTRAINT fk_assigned_reviewers_pull_request_id FOREIGN KEY (pull_request_id) REFERENCES pull_requests (pull_request_id),
+    CONSTRAINT fk_assigned_reviewers_user_id FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
@@ -0,0 +1,27 @@
+-- Индексы под запросы репозиториев. IF NOT EXISTS - на базах после ddl-auto часть уже создана
+-- с теми же именами; индексы, которые покрываются составными, удаляются
+
+-- Выборки по ревьюверу (user_id = ?) и поиск по ревьюверу, отсортированный по pull_request_id.
+-- Покрывает и одиночный индекс по user_id, и внешний ключ на users
+DROP INDEX IF EXISTS idx_assigned_reviewers_user_id;
+CREATE INDEX IF NOT EXISTS idx_assigned_reviewers_user_id_pull_request_id
+    ON assigned_reviewers (user_id, pull_request_id);
+
+-- Активные участники команды (team_name = ? AND is_active) без чтения таблицы: user_id в индексе
+DROP INDEX IF EXISTS idx_users_team_name;
+CREATE INDEX IF NOT EXISTS idx_users_team_name_is_active
+    ON users (team_name, is_active, user_id);
+
+-- Страницы поиска и выгрузки: диапазон по статусу и created_at
+CREATE INDEX IF NOT EXISTS idx_pull_requests_status_created_at
+    ON pull_requests (status, created_at, pull_request_id);
+
+-- PR автора (author_id = ? AND status = ?) и страницы поиска по автору/команде
+CREATE INDEX IF NOT EXISTS idx_pull_requests_author_status_created_at
+    ON pull_requests (author_id, status, created_at, pull_request_id);
+
+-- Подсчёт открытых ревью соединяет назначения с OPEN PR по id. Открытых PR на порядки меньше
+-- слитых, поэтому частичный индекс мал и читается без обращения к таблице
+CREATE INDEX IF NOT EXISTS idx_pull_requests_open
+    ON pull_requests (pull_request_id)
+    WHERE status = 'OPEN';
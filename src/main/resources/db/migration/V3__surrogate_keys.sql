@@ -0,0 +1,67 @@
+-- Внутренние bigint-ключи users.user_key и pull_requests.pull_request_key. Строковые user_id и
+-- pull_request_id остаются внешними идентификаторами API с уникальными ограничениями, а
+-- assigned_reviewers хранит пары ключей: 16 байт на строку вместо двух строк переменной длины
+
+-- Внешние ключи ссылаются на первичные ключи, которые заменяются ниже. Имена ограничений у баз
+-- после ddl-auto сгенерированы Hibernate, поэтому они удаляются по каталогу
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN SELECT conrelid::regclass AS table_name, conname
+              FROM pg_constraint
+              WHERE contype = 'f'
+                AND conrelid IN ('pull_requests'::regclass, 'assigned_reviewers'::regclass)
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END $$;
+
+-- Столбец identity заполняется для существующих строк при добавлении. Ответы API отдают
+-- user_id, поэтому он включён в первичный ключ: перевод ключа в id читается только из индекса
+ALTER TABLE users ADD COLUMN user_key BIGINT GENERATED ALWAYS AS IDENTITY;
+ALTER TABLE users DROP CONSTRAINT users_pkey;
+ALTER TABLE users ADD CONSTRAINT users_pkey PRIMARY KEY (user_key) INCLUDE (user_id);
+ALTER TABLE users ADD CONSTRAINT users_user_id_key UNIQUE (user_id);
+
+ALTER TABLE pull_requests ADD COLUMN pull_request_key BIGINT GENERATED ALWAYS AS IDENTITY;
+ALTER TABLE pull_requests DROP CONSTRAINT pull_requests_pkey;
+ALTER TABLE pull_requests ADD CONSTRAINT pull_requests_pkey PRIMARY KEY (pull_request_key);
+ALTER TABLE pull_requests ADD CONSTRAINT pull_requests_pull_request_id_key UNIQUE (pull_request_id);
+ALTER TABLE pull_requests ADD CONSTRAINT fk_pull_requests_author_id FOREIGN KEY (author_id) REFERENCES users (user_id);
+
+-- Таблица назначений пересобирается целиком: UPDATE с новыми столбцами оставил бы
+-- в таблице и индексах мёртвые версии всех строк
+CREATE TABLE assigned_reviewers_by_key (
+    pull_request_key BIGINT NOT NULL,
+    user_key         BIGINT NOT NULL
+);
+
+INSERT INTO assigned_reviewers_by_key (pull_request_key, user_key)
+SELECT pr.pull_request_key, u.user_key
+FROM assigned_reviewers ar
+JOIN pull_requests pr ON pr.pull_request_id = ar.pull_request_id
+JOIN users u ON u.user_id = ar.user_id;
+
+DROP TABLE assigned_reviewers;
+ALTER TABLE assigned_reviewers_by_key RENAME TO assigned_reviewers;
+
+ALTER TABLE assigned_reviewers ADD CONSTRAINT assigned_reviewers_pkey PRIMARY KEY (pull_request_key, user_key);
+ALTER TABLE assigned_reviewers ADD CONSTRAINT fk_assigned_reviewers_pull_request_key
+    FOREIGN KEY (pull_request_key) REFERENCES pull_requests (pull_request_key);
+ALTER TABLE assigned_reviewers ADD CONSTRAINT fk_assigned_reviewers_user_key
+    FOREIGN KEY (user_key) REFERENCES users (user_key);
+
+CREATE INDEX idx_assigned_reviewers_user_key_pull_request_key
+    ON assigned_reviewers (user_key, pull_request_key);
+
+-- Назначения соединяются с OPEN PR по новому ключу
+DROP INDEX idx_pull_requests_open;
+CREATE INDEX idx_pull_requests_open
+    ON pull_requests (pull_request_key)
+    WHERE status = 'OPEN';
+
+-- Активные участники команды соединяются с назначениями по user_key
+DROP INDEX idx_users_team_name_is_active;
+CREATE INDEX idx_users_team_name_is_active
+    ON users (team_name, is_active, user_id) INCLUDE (user_key);
@@ -0,0 +1,36 @@
+-- Архив слитых PR. Задание архивации переносит PR, слитые раньше app.archive.retention, вместе
+-- с назначениями из pull_requests и assigned_reviewers, так что рабочие таблицы и их индексы
+-- растут с числом недавних PR, а не со всей историей. Ключи сохраняются при переносе
+
+CREATE TABLE archived_pull_requests (
+    pull_request_key  BIGINT       NOT NULL,
+    pull_request_id   VARCHAR(255) NOT NULL,
+    pull_request_name VARCHAR(255) NOT NULL,
+    author_id         VARCHAR(255) NOT NULL,
+    status            VARCHAR(255) NOT NULL,
+    created_at        TIMESTAMP(6),
+    merged_at         TIMESTAMP(6),
+    archived_at       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT archived_pull_requests_pkey PRIMARY KEY (pull_request_key),
+    CONSTRAINT archived_pull_requests_pull_request_id_key UNIQUE (pull_request_id),
+    CONSTRAINT archived_pull_requests_status_check CHECK (status = 'MERGED'),
+    CONSTRAINT fk_archived_pull_requests_author_id FOREIGN KEY (author_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE archived_assigned_reviewers (
+    pull_request_key BIGINT NOT NULL,
+    user_key         BIGINT NOT NULL,
+    CONSTRAINT archived_assigned_reviewers_pkey PRIMARY KEY (pull_request_key, user_key),
+    CONSTRAINT fk_archived_assigned_reviewers_pull_request_key
+        FOREIGN KEY (pull_request_key) REFERENCES archived_pull_requests (pull_request_key),
+    CONSTRAINT fk_archived_assigned_reviewers_user_key FOREIGN KEY (user_key) REFERENCES users (user_key)
+);
+
+-- Входящие ревью с архивом: назначения ревьювера
+CREATE INDEX idx_archived_assigned_reviewers_user_key_pull_request_key
+    ON archived_assigned_reviewers (user_key, pull_request_key);
+
+-- Очередная порция архивации - самые давно слитые PR
+CREATE INDEX idx_pull_requests_merged_at
+    ON pull_requests (merged_at)
+    WHERE status = 'MERGED';
@@ -0,0 +1,8 @@
+-- Поиск с include_archived и выгрузка читают архив тем же планом, что и рабочие таблицы:
+-- диапазон по статусу и created_at, по автору/команде - по автору, статусу и created_at
+
+CREATE INDEX idx_archived_pull_requests_status_created_at
+    ON archived_pull_requests (status, created_at, pull_request_id);
+
+CREATE INDEX idx_archived_pull_requests_author_status_created_at
+    ON archived_pull_requests (author_id, status, created_at, pull_request_id);
@@ -0,0 +1,32 @@
+-- Входящие ревью (/users/getReview): статус и created_at PR копируются в назначения, и страница
+-- берётся диапазоном индекса (user_key, status, created_at), а не сортировкой всех назначений
+-- ревьювера. Копии пишет только PullRequestJdbcRepository: при вставке назначений - из PR,
+-- статус при слиянии - тем же запросом, что и у PR. В архиве все PR слиты, копируется только created_at
+
+ALTER TABLE assigned_reviewers
+    ADD COLUMN status     VARCHAR(255),
+    ADD COLUMN created_at TIMESTAMP(6);
+
+UPDATE assigned_reviewers ar
+SET status = pr.status, created_at = pr.created_at
+FROM pull_requests pr
+WHERE pr.pull_request_key = ar.pull_request_key;
+
+ALTER TABLE assigned_reviewers ALTER COLUMN status SET NOT NULL;
+ALTER TABLE assigned_reviewers ADD CONSTRAINT assigned_reviewers_status_check CHECK (status IN ('OPEN', 'MERGED'));
+
+ALTER TABLE archived_assigned_reviewers ADD COLUMN created_at TIMESTAMP(6);
+
+UPDATE archived_assigned_reviewers ar
+SET created_at = pr.created_at
+FROM archived_pull_requests pr
+WHERE pr.pull_request_key = ar.pull_request_key;
+
+-- Покрывают и прежние выборки по user_key: подсчёт открытых ревью, поиск по ревьюверу, статистику
+DROP INDEX idx_assigned_reviewers_user_key_pull_request_key;
+CREATE INDEX idx_assigned_reviewers_user_key_status_created_at
+    ON assigned_reviewers (user_key, status, created_at, pull_request_key);
+
+DROP INDEX idx_archived_assigned_reviewers_user_key_pull_request_key;
+CREATE INDEX idx_archived_assigned_reviewers_user_key_created_at
+    ON archived_assigned_reviewers (user_key, created_at, pull_request_key);
@@ -0,0 +1,86 @@
+package org.example.avitotech;
+
+import org.example.avitotech.service.UserExistenceIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserExistenceIndex userExistenceIndex;
+
+    @Test
+    void testAdminTokenSuccess() throws Exception {
+        when(userExistenceIndex.exists("u_admin")).thenReturn(true);
+
+        mockMvc.perform(post("/auth/admin-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":\"u_admin\"}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.token").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.role").value("ADMIN"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.userId").value("u_admin"));
+    }
+
+    @Test
+    void testUserTokenNotFound() throws Exception {
+        when(userExistenceIndex.exists("nonexistent")).thenReturn(false);
+
+        mockMvc.perform(post("/auth/user-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":\"nonexistent\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("NOT_FOUND"));
+    }
+
+    @Test
+    void testBatchTokenSuccess() throws Exception {
+        when(userExistenceIndex.findMissing(anyCollection())).thenReturn(Set.of("ghost"));
+
+        mockMvc.perform(post("/auth/batch-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[\"u1\",\"u2\",\"ghost\",\"u1\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tokens.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tokens[0].userId").value("u1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tokens[0].role").value("USER"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.tokens[1].userId").value("u2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.notFound[0]").value("ghost"));
+
+        verify(userExistenceIndex, times(1)).findMissing(anyCollection());
+    }
+
+    @Test
+    void testBatchTokenInvalidRole() throws Exception {
+        mockMvc.perform(post("/auth/batch-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[\"u1\"],\"role\":\"ROOT\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBatchTokenEmptyList() throws Exception {
+        mockMvc.perform(post("/auth/batch-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.avitotech;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.example.avitotech.jwt.JwtPrincipal;
+import org.example.avitotech.jwt.JwtTokenProvider;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.service.TeamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Проверка токенов в JwtTokenProvider и JwtAuthenticationFilter
+@SpringBootTest
+@AutoConfigureMockMvc
+class JwtAuthenticationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockitoBean
+    private TeamService teamService;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Test
+    void verifiedTokenIsCachedUntilExpiry() {
+        String token = jwtTokenProvider.createUserToken("u1");
+
+        JwtPrincipal principal = jwtTokenProvider.verify(token);
+        assertThat(principal.getUserId()).isEqualTo("u1");
+        assertThat(principal.getRole()).isEqualTo("USER");
+        assertThat(principal.getExpiresAt()).isNotNull();
+        assertThat(jwtTokenProvider.verify(token)).isSameAs(principal);
+    }
+
+    @Test
+    void tokenWithoutExpirationIsVerifiedEveryTime() {
+        String token = Jwts.builder()
+                .claim("role", "ADMIN")
+                .setSubject("u1")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+
+        JwtPrincipal principal = jwtTokenProvider.verify(token);
+        assertThat(principal.getUserId()).isEqualTo("u1");
+        assertThat(principal.getRole()).isEqualTo("ADMIN");
+        assertThat(principal.getExpiresAt()).isNull();
+        assertThat(jwtTokenProvider.verify(token)).isNotSameAs(principal).isEqualTo(principal);
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = Jwts.builder()
+                .claim("role", "USER")
+                .setSubject("u1")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret)), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertThat(jwtTokenProvider.verify(token)).isNull();
+    }
+
+    @Test
+    void bearerTokenAuthenticatesRequest() throws Exception {
+        when(teamService.getTeamByName("backend")).thenReturn(Team.builder()
+                .teamName("backend")
+                .members(List.of())
+                .build());
+        String token = jwtTokenProvider.createUserToken("u1");
+
+        mockMvc.perform(get("/team/get")
+                        .param("team_name", "backend")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.team_name").value("backend"));
+
+        mockMvc.perform(get("/team/get")
+                        .param("team_name", "backend")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() throws Exception {
+        String token = jwtTokenProvider.createUserToken("u1");
+
+        mockMvc.perform(get("/team/get")
+                        .param("team_name", "backend")
+                        .header("Authorization", "Bearer " + token.substring(0, token.length() - 2) + "xx"))
+                .andExpect(status().isUnauthorized());
+    }
+}
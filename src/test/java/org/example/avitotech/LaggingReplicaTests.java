@@ -0,0 +1,124 @@
+package org.example.avitotech;
+
+import org.example.avitotech.config.ReplicaPool;
+import org.example.avitotech.dto.StatsResponse;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.model.User;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.service.AssignmentStatistics;
+import org.example.avitotech.service.PullRequestService;
+import org.example.avitotech.service.TeamService;
+import org.example.avitotech.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Реплика, которая ещё не получила ни одной записи: схема lagging_replica с пустыми копиями таблиц.
+// Поиск (@ReplicaRead) её читает, а загрузки в кэши, выдача с ETag и сверка статистики - нет.
+// Контекст с двумя пулами закрывается после класса, иначе прогон упирается в max_connections
+@DirtiesContext
+@SpringBootTest(properties = "app.datasource.replicas[0].url=${spring.datasource.url}?currentSchema=" + LaggingReplicaTests.SCHEMA)
+class LaggingReplicaTests {
+
+    static final String SCHEMA = "lagging_replica";
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AssignmentStatistics assignmentStatistics;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String teamName;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        for (String table : jdbcTemplate.queryForList("SELECT tablename FROM pg_tables " +
+                "WHERE schemaname = 'public' AND tablename <> 'flyway_schema_history'", String.class)) {
+            jdbcTemplate.execute("CREATE TABLE " + SCHEMA + "." + table + " (LIKE public." + table + " INCLUDING DEFAULTS)");
+        }
+        replicaPool.checkReplicas();
+
+        prefix = "lag-" + UUID.randomUUID() + "-";
+        teamName = prefix + "team";
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            members.add(User.builder()
+                    .userId(prefix + "u" + i)
+                    .username("User " + i)
+                    .teamName(teamName)
+                    .isActive(true)
+                    .build());
+        }
+        teamService.createTeam(Team.builder().teamName(teamName).members(members).build());
+        pullRequestService.createPullRequest(prefix + "pr1", "Lagging", prefix + "u0", List.of(prefix + "u1"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    void replicaReadsSeeLaggingReplica() {
+        assertThat(replicaPool.healthyReplicas()).isEqualTo(1);
+
+        PullRequestJdbcRepository.SearchFilter filter = PullRequestJdbcRepository.SearchFilter.builder()
+                .teamName(teamName)
+                .build();
+        assertThat(pullRequestService.searchPullRequests(filter, 10, null).getPullRequests()).isEmpty();
+    }
+
+    @Test
+    void cachedAndVersionedReadsUsePrimary() {
+        assertThat(teamService.getReviewersInTeam(teamName)).extracting(User::getUserId)
+                .containsExactly(prefix + "u1");
+        assertThat(teamService.getAllTeamMembers(teamName)).hasSize(3);
+
+        assertThat(userService.getUserPullRequests(prefix + "u1", null, 10, null, false).getPullRequests())
+                .extracting("prId")
+                .containsExactly(prefix + "pr1");
+    }
+
+    @Test
+    void reconcileReadsPrimary() {
+        assertThat(replicaPool.healthyReplicas()).isEqualTo(1);
+        assignmentStatistics.reconcile();
+
+        StatsResponse stats = assignmentStatistics.snapshot(teamName, 10);
+        assertThat(stats.getTeams()).singleElement()
+                .satisfies(team -> assertThat(team.getAssignments()).isEqualTo(1));
+        assertThat(stats.getUsers()).extracting(StatsResponse.UserStats::getUserId)
+                .contains(prefix + "u1");
+    }
+}
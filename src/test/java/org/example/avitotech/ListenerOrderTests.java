@@ -0,0 +1,53 @@
+package org.example.avitotech;
+
+import org.example.avitotech.event.UsersChangedEvent;
+import org.example.avitotech.service.EntityCacheEvictor;
+import org.example.avitotech.service.ResourceVersions;
+import org.example.avitotech.service.ReviewerLoadIndex;
+import org.example.avitotech.service.TeamCache;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.mockito.Mockito.inOrder;
+
+// Кэши снимаются раньше, чем растут версии для ETag
+@SpringBootTest
+class ListenerOrderTests {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @MockitoSpyBean
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @MockitoSpyBean
+    private TeamCache teamCache;
+
+    @MockitoSpyBean
+    private ReviewerLoadIndex reviewerLoadIndex;
+
+    @MockitoSpyBean
+    private ResourceVersions resourceVersions;
+
+    @Test
+    void usersChangedInvalidatesCachesBeforeBumpingVersions() {
+        UsersChangedEvent event = UsersChangedEvent.of(List.of("order-u1"), List.of("order-team"));
+
+        eventPublisher.publishEvent(event);
+
+        InOrder order = inOrder(entityCacheEvictor, teamCache, reviewerLoadIndex, resourceVersions);
+        order.verify(entityCacheEvictor).onUsersChanged(event);
+        order.verify(teamCache).onUsersChanged(event);
+        order.verify(resourceVersions).onUsersChanged(event);
+        InOrder loadIndexOrder = inOrder(entityCacheEvictor, reviewerLoadIndex, resourceVersions);
+        loadIndexOrder.verify(entityCacheEvictor).onUsersChanged(event);
+        loadIndexOrder.verify(reviewerLoadIndex).onUsersChanged(event);
+        loadIndexOrder.verify(resourceVersions).onUsersChanged(event);
+    }
+}
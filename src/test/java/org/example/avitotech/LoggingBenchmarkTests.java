@@ -0,0 +1,115 @@
+package org.example.avitotech;
+
+import org.example.avitotech.logging.LogSamplingProperties;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.model.User;
+import org.example.avitotech.service.TeamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Сравнение задержки /team/get при выключенном логировании, полном логировании и сэмплировании 1%.
+// Запуск: ./gradlew benchmark --tests LoggingBenchmarkTests
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoggingBenchmarkTests {
+
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int MEASURED_REQUESTS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoggingSystem loggingSystem;
+
+    @Autowired
+    private LogSamplingProperties samplingProperties;
+
+    @MockitoBean
+    private TeamService teamService;
+
+    @BeforeEach
+    void setUp() {
+        Team team = Team.builder()
+                .teamName("backend")
+                .members(List.of(
+                        User.builder().userId("u1").username("Alice").teamName("backend").isActive(true).build(),
+                        User.builder().userId("u2").username("Bob").teamName("backend").isActive(true).build()
+                ))
+                .build();
+        when(teamService.getTeamByName("backend")).thenReturn(team);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loggingSystem.setLogLevel("org.example.avitotech", null);
+        loggingSystem.setLogLevel("org.springframework.web", null);
+        samplingProperties.getEndpoints().remove("/team/get");
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void compareTeamGetLatencyWithLoggingOnAndOff() throws Exception {
+        samplingProperties.getEndpoints().put("/team/get", 1.0);
+        setLevel(LogLevel.OFF);
+        run(WARMUP_REQUESTS);
+        long[] off = run(MEASURED_REQUESTS);
+
+        setLevel(LogLevel.DEBUG);
+        run(WARMUP_REQUESTS);
+        long[] on = run(MEASURED_REQUESTS);
+
+        samplingProperties.getEndpoints().put("/team/get", 0.01);
+        run(WARMUP_REQUESTS);
+        long[] sampled = run(MEASURED_REQUESTS);
+
+        report("logging off", off);
+        report("logging on (DEBUG, 100%)", on);
+        report("logging on (DEBUG, 1% sampled)", sampled);
+    }
+
+    private void setLevel(LogLevel level) {
+        loggingSystem.setLogLevel("org.example.avitotech", level);
+        loggingSystem.setLogLevel("org.springframework.web", level);
+    }
+
+    private long[] run(int requests) throws Exception {
+        long[] latencies = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            mockMvc.perform(get("/team/get").param("team_name", "backend"))
+                    .andExpect(status().isOk());
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    private static void report(String mode, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        System.out.printf("%-32s mean=%7.1f us  p50=%7.1f us  p99=%7.1f us%n",
+                mode,
+                mean / 1_000.0,
+                sorted[sorted.length / 2] / 1_000.0,
+                sorted[(int) (sorted.length * 0.99)] / 1_000.0);
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.dto.PullRequestSearchResponse;
+import org.example.avitotech.exception.ApiException;
+import org.example.avitotech.exception.ErrorCode;
+import org.example.avitotech.model.AssignedReviewer;
+import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.service.PullRequestArchiver;
+import org.example.avitotech.service.PullRequestExportService;
+import org.example.avitotech.service.PullRequestService;
+import org.example.avitotech.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Архивация слитых PR против реальной БД. Слитым PR теста ставится merged_at в 1990 году,
+// и архивируется только то, что слито раньше 1991-го, чтобы не трогать остальные данные
+@SpringBootTest
+class PullRequestArchiveTests {
+
+    private static final LocalDateTime ARCHIVE_BEFORE = LocalDateTime.of(1991, 1, 1, 0, 0);
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PullRequestArchiver pullRequestArchiver;
+
+    @Autowired
+    private PullRequestExportService pullRequestExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String teamName;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "archive-" + UUID.randomUUID() + "-";
+        teamName = prefix + "team";
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (?)", teamName);
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    prefix + "u" + i, "User " + i, teamName);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM archived_assigned_reviewers ar USING archived_pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM archived_pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name = ?", teamName);
+    }
+
+    @Test
+    void archivesMergedPullRequestsWithReviewers() {
+        String merged = createAndMerge("pr-merged");
+        String open = prefix + "pr-open";
+        pullRequestService.createPullRequest(open, "Open", prefix + "u0", List.of(prefix + "u1"));
+
+        assertThat(pullRequestArchiver.archive(ARCHIVE_BEFORE)).isEqualTo(1);
+
+        assertThat(count("SELECT COUNT(*) FROM pull_requests WHERE pull_request_id = ?", merged)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM archived_pull_requests WHERE pull_request_id = ?", merged)).isEqualTo(1);
+        assertThat(count("SELECT COUNT(*) FROM archived_assigned_reviewers ar JOIN archived_pull_requests pr " +
+                "ON pr.pull_request_key = ar.pull_request_key WHERE pr.pull_request_id = ?", merged)).isEqualTo(2);
+        assertThat(count("SELECT COUNT(*) FROM pull_requests WHERE pull_request_id = ?", open)).isEqualTo(1);
+
+        assertThat(pullRequestArchiver.archive(ARCHIVE_BEFORE)).isZero();
+    }
+
+    @Test
+    void reviewInboxReadsArchiveOnlyWhenAsked() {
+        String merged = createAndMerge("pr-merged");
+        String open = prefix + "pr-open";
+        pullRequestService.createPullRequest(open, "Open", prefix + "u0", List.of(prefix + "u1"));
+        pullRequestArchiver.archive(ARCHIVE_BEFORE);
+
+        String reviewer = prefix + "u1";
+        assertThat(inbox(reviewer, null, false)).containsExactly(open);
+        assertThat(inbox(reviewer, null, true)).containsExactlyInAnyOrder(open, merged);
+        assertThat(inbox(reviewer, PullRequestStatus.OPEN, true)).containsExactly(open);
+
+        List<PullRequestResponse> archived = userService.getUserPullRequests(reviewer, PullRequestStatus.MERGED, 10, null, true)
+                .getPullRequests();
+        assertThat(archived).hasSize(1);
+        assertThat(archived.get(0).getReviewers()).containsExactlyInAnyOrder(prefix + "u1", prefix + "u2");
+    }
+
+    @Test
+    void reviewInboxFollowsMergeBeforeArchive() {
+        String open = prefix + "pr-open";
+        pullRequestService.createPullRequest(open, "Open", prefix + "u0", List.of(prefix + "u1"));
+        String merged = createAndMerge("pr-merged");
+
+        String reviewer = prefix + "u1";
+        assertThat(inbox(reviewer, PullRequestStatus.OPEN, false)).containsExactly(open);
+        assertThat(inbox(reviewer, PullRequestStatus.MERGED, false)).containsExactly(merged);
+        assertThat(inbox(reviewer, null, false)).containsExactly(merged, open);
+    }
+
+    @Test
+    void searchReadsArchiveOnlyWhenAsked() {
+        String merged = createAndMerge("pr-merged");
+        String open = prefix + "pr-open";
+        pullRequestService.createPullRequest(open, "Open", prefix + "u0", List.of(prefix + "u1"));
+        pullRequestArchiver.archive(ARCHIVE_BEFORE);
+
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().teamName(teamName)))
+                .containsExactly(open);
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().teamName(teamName).includeArchived(true)))
+                .containsExactly(open, merged);
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().reviewerId(prefix + "u2").includeArchived(true)))
+                .containsExactly(merged);
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().teamName(teamName)
+                .status(PullRequestStatus.OPEN).includeArchived(true)))
+                .containsExactly(open);
+    }
+
+    // Поиск по ревьюверу сливает страницы OPEN, MERGED и архива и продолжается по курсору
+    @Test
+    void searchByReviewerMergesStatusesAndArchive() {
+        String archived = createAndMerge("pr-d");
+        pullRequestArchiver.archive(ARCHIVE_BEFORE);
+        String openByU0 = prefix + "pr-a";
+        pullRequestService.createPullRequest(openByU0, "Open", prefix + "u0", List.of(prefix + "u1"));
+        String merged = prefix + "pr-b";
+        pullRequestService.createPullRequest(merged, "Merged", prefix + "u0", List.of(prefix + "u1"));
+        pullRequestService.mergePullRequest(merged);
+        String openByU2 = prefix + "pr-c";
+        pullRequestService.createPullRequest(openByU2, "Open", prefix + "u2", List.of(prefix + "u1"));
+
+        String reviewer = prefix + "u1";
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().reviewerId(reviewer).includeArchived(true)))
+                .containsExactly(openByU2, merged, openByU0, archived);
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().reviewerId(reviewer)
+                .status(PullRequestStatus.MERGED).includeArchived(true)))
+                .containsExactly(merged, archived);
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().reviewerId(reviewer)
+                .status(PullRequestStatus.OPEN)))
+                .containsExactly(openByU2, openByU0);
+        assertThat(search(PullRequestJdbcRepository.SearchFilter.builder().reviewerId(reviewer)
+                .authorId(prefix + "u0").teamName(teamName).includeArchived(true)))
+                .containsExactly(merged, openByU0, archived);
+
+        PullRequestJdbcRepository.SearchFilter filter = PullRequestJdbcRepository.SearchFilter.builder()
+                .reviewerId(reviewer).includeArchived(true).build();
+        PullRequestSearchResponse first = pullRequestService.searchPullRequests(filter, 2, null);
+        assertThat(first.getPullRequests()).extracting(PullRequestResponse::getPrId).containsExactly(openByU2, merged);
+        PullRequestSearchResponse second = pullRequestService.searchPullRequests(filter, 2, first.getNextCursor());
+        assertThat(second.getPullRequests()).extracting(PullRequestResponse::getPrId).containsExactly(openByU0, archived);
+    }
+
+    @Test
+    void getByIdReadsArchiveOnlyWhenAsked() {
+        String merged = createAndMerge("pr-merged");
+        String open = prefix + "pr-open";
+        pullRequestService.createPullRequest(open, "Open", prefix + "u0", List.of(prefix + "u1"));
+        pullRequestArchiver.archive(ARCHIVE_BEFORE);
+
+        assertThat(pullRequestService.getPullRequestById(open, false).getStatus()).isEqualTo(PullRequestStatus.OPEN);
+        assertThat(pullRequestService.getPullRequestById(open, true).getStatus()).isEqualTo(PullRequestStatus.OPEN);
+
+        PullRequest archived = pullRequestService.getPullRequestById(merged, true);
+        assertThat(archived.getStatus()).isEqualTo(PullRequestStatus.MERGED);
+        assertThat(archived.getMergedAt()).isNotNull();
+        assertThat(archived.getAssignedReviewers()).extracting(AssignedReviewer::getUserId)
+                .containsExactlyInAnyOrder(prefix + "u1", prefix + "u2");
+
+        assertThatThrownBy(() -> pullRequestService.getPullRequestById(merged, false))
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.NOT_FOUND));
+        assertThatThrownBy(() -> pullRequestService.getPullRequestById(prefix + "missing", true))
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.NOT_FOUND));
+    }
+
+    @Test
+    void exportIncludesArchive() throws Exception {
+        String merged = createAndMerge("pr-merged");
+        String open = prefix + "pr-open";
+        pullRequestService.createPullRequest(open, "Open", prefix + "u0", List.of(prefix + "u1"));
+        pullRequestArchiver.archive(ARCHIVE_BEFORE);
+
+        LocalDateTime from = LocalDateTime.now().minusHours(1);
+        assertThat(export(from, true)).contains("\"" + open + "\"", "\"" + merged + "\"");
+        assertThat(export(from, false)).contains("\"" + open + "\"").doesNotContain("\"" + merged + "\"");
+    }
+
+    @Test
+    void archivedPullRequestKeepsItsIdAndMergedState() {
+        String merged = createAndMerge("pr-merged");
+        pullRequestArchiver.archive(ARCHIVE_BEFORE);
+
+        PullRequest pullRequest = pullRequestService.mergePullRequest(merged);
+        assertThat(pullRequest.getStatus()).isEqualTo(PullRequestStatus.MERGED);
+        assertThat(pullRequest.getAssignedReviewers()).hasSize(2);
+
+        assertThat(pullRequestService.mergePullRequests(List.of(merged)).get(0).getMergedAt()).isNotNull();
+
+        assertThatThrownBy(() -> pullRequestService.createPullRequest(merged, "Again", prefix + "u0", List.of()))
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.ALREADY_EXISTS));
+        assertThat(pullRequestService.createPullRequests(List.of(PullRequest.builder()
+                .pullRequestId(merged)
+                .pullRequestName("Again")
+                .authorId(prefix + "u0")
+                .build())).get(0).isCreated()).isFalse();
+
+        assertThatThrownBy(() -> pullRequestService.reassignReviewerAutomatically(merged, prefix + "u1"))
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.PR_MERGED));
+    }
+
+    private String createAndMerge(String name) {
+        String prId = prefix + name;
+        pullRequestService.createPullRequest(prId, name, prefix + "u0", List.of(prefix + "u1", prefix + "u2"));
+        pullRequestService.mergePullRequest(prId);
+        jdbcTemplate.update("UPDATE pull_requests SET merged_at = ? WHERE pull_request_id = ?",
+                LocalDateTime.of(1990, 1, 1, 0, 0), prId);
+        return prId;
+    }
+
+    private List<String> inbox(String userId, PullRequestStatus status, boolean includeArchived) {
+        return userService.getUserPullRequests(userId, status, 10, null, includeArchived).getPullRequests().stream()
+                .map(PullRequestResponse::getPrId)
+                .toList();
+    }
+
+    private int count(String sql, String pullRequestId) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, pullRequestId);
+    }
+
+    private List<String> search(PullRequestJdbcRepository.SearchFilter.SearchFilterBuilder filter) {
+        return pullRequestService.searchPullRequests(filter.build(), 10, null).getPullRequests().stream()
+                .map(PullRequestResponse::getPrId)
+                .toList();
+    }
+
+    private String export(LocalDateTime createdFrom, boolean includeArchived) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pullRequestExportService.exportPullRequests(null, createdFrom, null, includeArchived, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
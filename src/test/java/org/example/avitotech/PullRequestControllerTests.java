@@ -1,14 +1,22 @@
 package org.example.avitotech;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.avitotech.dto.PullRequestBatchCreateRequest;
+import org.example.avitotech.dto.PullRequestBatchItemResponse;
 import org.example.avitotech.dto.PullRequestCreateRequest;
+import org.example.avitotech.dto.PullRequestBatchMergeItemResponse;
 import org.example.avitotech.dto.PullRequestMergeRequest;
 import org.example.avitotech.dto.PullRequestReassignRequest;
+import org.example.avitotech.dto.PullRequestReassignResponse;
+import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.dto.PullRequestSearchResponse;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.model.AssignedReviewer;
 import org.example.avitotech.model.PullRequest;
 import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.service.PullRequestExportService;
 import org.example.avitotech.service.PullRequestService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,11 +27,18 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,6 +57,9 @@ class PullRequestControllerTests {
     @MockitoBean
     private PullRequestService pullRequestService;
 
+    @MockitoBean
+    private PullRequestExportService pullRequestExportService;
+
     private PullRequest testPullRequest;
 
     @BeforeEach
@@ -192,6 +210,38 @@ class PullRequestControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testCreatePullRequestWithAutoAssign() throws Exception {
+        String requestBody = "{\"pr_id\":\"pr123\",\"pr_name\":\"Add authentication\",\"author_id\":\"u5\",\"auto_assign\":true}";
+
+        when(pullRequestService.createPullRequestWithAutoAssign("pr123", "Add authentication", "u5"))
+                .thenReturn(testPullRequest);
+
+        mockMvc.perform(post("/pullRequest/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pr.pr_id").value("pr123"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pr.reviewers.length()").value(3));
+
+        verify(pullRequestService, times(1)).createPullRequestWithAutoAssign("pr123", "Add authentication", "u5");
+        verify(pullRequestService, never()).createPullRequest(anyString(), anyString(), anyString(), anyList());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testCreatePullRequestAutoAssignWithReviewers() throws Exception {
+        String requestBody = "{\"pr_id\":\"pr123\",\"pr_name\":\"Add auth\",\"author_id\":\"u5\",\"reviewers\":[\"u1\"],\"auto_assign\":true}";
+
+        mockMvc.perform(post("/pullRequest/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testCreatePullRequestMissingPrId() throws Exception {
@@ -220,6 +270,65 @@ class PullRequestControllerTests {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testCreatePullRequestsBatch() throws Exception {
+        PullRequestBatchCreateRequest request = PullRequestBatchCreateRequest.builder()
+                .pullRequests(List.of(
+                        PullRequestCreateRequest.builder()
+                                .prId("pr123")
+                                .prName("Add authentication")
+                                .authorId("u5")
+                                .reviewers(List.of("u1", "u2", "u3"))
+                                .build(),
+                        PullRequestCreateRequest.builder()
+                                .prId("pr124")
+                                .prName("Fix login")
+                                .authorId("nonexistent")
+                                .reviewers(List.of("u1"))
+                                .build()
+                ))
+                .build();
+
+        when(pullRequestService.createPullRequests(anyList())).thenReturn(List.of(
+                PullRequestBatchItemResponse.created(testPullRequest),
+                PullRequestBatchItemResponse.failed("pr124", ErrorCode.NOT_FOUND, "Author not found")
+        ));
+
+        mockMvc.perform(post("/pullRequest/createBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].result").value("CREATED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].pr.reviewers.length()").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].pr_id").value("pr124"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].error.code").value("NOT_FOUND"));
+
+        verify(pullRequestService, times(1)).createPullRequests(anyList());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testCreatePullRequestsBatchForbidden() throws Exception {
+        PullRequestBatchCreateRequest request = PullRequestBatchCreateRequest.builder()
+                .pullRequests(List.of(PullRequestCreateRequest.builder()
+                        .prId("pr123")
+                        .prName("Add authentication")
+                        .authorId("u5")
+                        .reviewers(List.of("u1"))
+                        .build()))
+                .build();
+
+        mockMvc.perform(post("/pullRequest/createBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testMergePullRequestSuccess() throws Exception {
@@ -247,38 +356,57 @@ class PullRequestControllerTests {
 
     @Test
     @WithMockUser(roles = "ADMIN")
-    void testMergePullRequestNotFound() throws Exception {
-        PullRequestMergeRequest request = PullRequestMergeRequest.builder()
-                .prId("nonexistent")
-                .build();
+    void testMergePullRequestsBatch() throws Exception {
+        String requestBody = "{\"pr_ids\":[\"pr1\",\"pr2\",\"missing\"]}";
+        LocalDateTime mergedAt = LocalDateTime.now();
+
+        when(pullRequestService.mergePullRequests(List.of("pr1", "pr2", "missing"))).thenReturn(List.of(
+                PullRequestBatchMergeItemResponse.merged("pr1", mergedAt),
+                PullRequestBatchMergeItemResponse.alreadyMerged("pr2", mergedAt),
+                PullRequestBatchMergeItemResponse.notFound("missing")
+        ));
 
-        doThrow(new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT))
-                .when(pullRequestService).mergePullRequest("nonexistent");
+        mockMvc.perform(post("/pullRequest/mergeBatch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.merged").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.already_merged").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.not_found").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].result").value("MERGED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[2].pr_id").value("missing"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[2].merged_at").doesNotExist());
+
+        verify(pullRequestService, times(1)).mergePullRequests(List.of("pr1", "pr2", "missing"));
+    }
 
-        mockMvc.perform(post("/pullRequest/merge")
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testMergePullRequestsBatchEmpty() throws Exception {
+        mockMvc.perform(post("/pullRequest/mergeBatch")
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(request))
+                        .content("{\"pr_ids\":[]}")
                         .with(csrf()))
-                .andExpect(status().isNotFound())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("NOT_FOUND"));
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
-    void testMergePullRequestInvalidState() throws Exception {
+    void testMergePullRequestNotFound() throws Exception {
         PullRequestMergeRequest request = PullRequestMergeRequest.builder()
-                .prId("pr123")
+                .prId("nonexistent")
                 .build();
 
-        doThrow(new ApiException(ErrorCode.INVALID_STATE, "Pull request is not in OPEN status", ErrorCode.ErrorCategory.CONFLICT))
-                .when(pullRequestService).mergePullRequest("pr123");
+        doThrow(new ApiException(ErrorCode.NOT_FOUND, "Pull request not found", ErrorCode.ErrorCategory.CONFLICT))
+                .when(pullRequestService).mergePullRequest("nonexistent");
 
         mockMvc.perform(post("/pullRequest/merge")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request))
                         .with(csrf()))
-                .andExpect(status().isUnprocessableEntity())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("INVALID_STATE"));
+                .andExpect(status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("NOT_FOUND"));
     }
 
     @Test
@@ -338,6 +466,55 @@ class PullRequestControllerTests {
         verify(pullRequestService, times(1)).reassignReviewer("pr123", "u1", "u4");
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testReassignReviewerAutomatically() throws Exception {
+        PullRequestReassignRequest request = PullRequestReassignRequest.builder()
+                .prId("pr123")
+                .oldReviewerId("u1")
+                .build();
+
+        PullRequest updatedPR = testPullRequest;
+        updatedPR.setAssignedReviewers(List.of(
+                AssignedReviewer.builder().userId("u7").build(),
+                AssignedReviewer.builder().userId("u2").build(),
+                AssignedReviewer.builder().userId("u3").build()
+        ));
+
+        when(pullRequestService.reassignReviewerAutomatically("pr123", "u1"))
+                .thenReturn(PullRequestReassignResponse.of(updatedPR, "u7"));
+
+        mockMvc.perform(post("/pullRequest/reassign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pr.pr_id").value("pr123"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.replaced_by").value("u7"));
+
+        verify(pullRequestService, times(1)).reassignReviewerAutomatically("pr123", "u1");
+        verify(pullRequestService, never()).reassignReviewer(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testReassignReviewerAutomaticallyNoCandidate() throws Exception {
+        PullRequestReassignRequest request = PullRequestReassignRequest.builder()
+                .prId("pr123")
+                .oldReviewerId("u1")
+                .build();
+
+        doThrow(new ApiException(ErrorCode.NO_CANDIDATE, "no active replacement candidate in team", ErrorCode.ErrorCategory.CONFLICT))
+                .when(pullRequestService).reassignReviewerAutomatically("pr123", "u1");
+
+        mockMvc.perform(post("/pullRequest/reassign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("NO_CANDIDATE"));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testReassignReviewerPrNotFound() throws Exception {
@@ -428,5 +605,113 @@ class PullRequestControllerTests {
                         .with(csrf()))
                 .andExpect(status().isBadRequest());
     }
-}
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void testSearchPullRequestsSuccess() throws Exception {
+        PullRequestJdbcRepository.SearchFilter filter = PullRequestJdbcRepository.SearchFilter.builder()
+                .teamName("backend")
+                .status(PullRequestStatus.OPEN)
+                .createdFrom(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .includeArchived(true)
+                .build();
+        when(pullRequestService.searchPullRequests(filter, 1, null))
+                .thenReturn(PullRequestSearchResponse.builder()
+                        .pullRequests(List.of(PullRequestResponse.from(testPullRequest)))
+                        .nextCursor("next")
+                        .build());
+
+        mockMvc.perform(get("/pullRequest/search")
+                        .param("team_name", "backend")
+                        .param("author_id", "")
+                        .param("status", "open")
+                        .param("created_from", "2025-01-01")
+                        .param("include_archived", "true")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pull_requests[0].pr_id").value("pr123"))
+                .andExpect(jsonPath("$.pull_requests[0].reviewers.length()").value(3))
+                .andExpect(jsonPath("$.next_cursor").value("next"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testSearchPullRequestsLastPageHasNoCursor() throws Exception {
+        when(pullRequestService.searchPullRequests(any(), eq(50), eq("abc")))
+                .thenReturn(PullRequestSearchResponse.builder().pullRequests(List.of()).build());
+
+        mockMvc.perform(get("/pullRequest/search").param("reviewer_id", "u1").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pull_requests").isEmpty())
+                .andExpect(jsonPath("$.next_cursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testSearchPullRequestsInvalidParameters() throws Exception {
+        mockMvc.perform(get("/pullRequest/search").param("limit", "501"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("BAD_REQUEST"));
+        mockMvc.perform(get("/pullRequest/search")
+                        .param("created_from", "2025-02-01")
+                        .param("created_to", "2025-02-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/pullRequest/search").param("status", "closed"))
+                .andExpect(status().isBadRequest());
+
+        verify(pullRequestService, never()).searchPullRequests(any(), anyInt(), any());
+    }
+
+    @Test
+    void testSearchPullRequestsUnauthorized() throws Exception {
+        mockMvc.perform(get("/pullRequest/search"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testExportPullRequestsStreamsNdjson() throws Exception {
+        String ndjson = "{\"pr_id\":\"pr1\"}\n{\"pr_id\":\"pr2\"}\n";
+        when(pullRequestExportService.exportPullRequests(
+                eq(PullRequestStatus.MERGED),
+                eq(LocalDateTime.of(2025, 1, 1, 0, 0)),
+                eq(LocalDateTime.of(2025, 2, 1, 12, 30)),
+                eq(true),
+                any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(4, OutputStream.class).write(ndjson.getBytes(StandardCharsets.UTF_8));
+                    return 2L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/pullRequest/export")
+                        .param("status", "merged")
+                        .param("created_from", "2025-01-01")
+                        .param("created_to", "2025-02-01T12:30:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(ndjson));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testExportPullRequestsInvalidRange() throws Exception {
+        mockMvc.perform(get("/pullRequest/export")
+                        .param("created_from", "2025-02-01")
+                        .param("created_to", "2025-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("BAD_REQUEST"));
+
+        verifyNoInteractions(pullRequestExportService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testExportPullRequestsForbiddenForUser() throws Exception {
+        mockMvc.perform(get("/pullRequest/export"))
+                .andExpect(status().isForbidden());
+    }
+}
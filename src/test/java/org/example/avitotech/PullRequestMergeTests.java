@@ -0,0 +1,140 @@
+package org.example.avitotech;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.avitotech.dto.PullRequestMergeRequest;
+import org.example.avitotech.event.PullRequestsMergedEvent;
+import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.service.PullRequestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Слияние PR против реальной БД: в команде u0..u2, автор u0, ревьюверы u1 и u2
+@SpringBootTest
+@AutoConfigureMockMvc
+@RecordApplicationEvents
+class PullRequestMergeTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String prId;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "merge-" + UUID.randomUUID() + "-";
+        String teamName = prefix + "team";
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (?)", teamName);
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    prefix + "u" + i, "User " + i, teamName);
+        }
+        prId = prefix + "pr1";
+        pullRequestService.createPullRequest(prId, "Merge", prefix + "u0", List.of(prefix + "u1", prefix + "u2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    // Повторное слияние возвращает тот же PR и не публикует событие второй раз
+    @Test
+    void mergeIsIdempotent() {
+        PullRequest first = pullRequestService.mergePullRequest(prId);
+        PullRequest second = pullRequestService.mergePullRequest(prId);
+
+        assertThat(first.getStatus()).isEqualTo(PullRequestStatus.MERGED);
+        assertThat(first.getMergedAt()).isNotNull();
+        assertThat(second.getStatus()).isEqualTo(PullRequestStatus.MERGED);
+        assertThat(second.getMergedAt()).isEqualTo(first.getMergedAt());
+        assertThat(applicationEvents.stream(PullRequestsMergedEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getReviewersByPullRequest().get(prId))
+                        .containsExactlyInAnyOrder(prefix + "u1", prefix + "u2"));
+    }
+
+    // Статус PR продублирован в назначениях для индекса входящих и должен смениться вместе с PR
+    @Test
+    void mergeMarksAssignmentsMerged() {
+        pullRequestService.mergePullRequest(prId);
+
+        List<String> statuses = jdbcTemplate.queryForList("SELECT ar.status FROM assigned_reviewers ar " +
+                "JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key " +
+                "WHERE pr.pull_request_id = ?", String.class, prId);
+        assertThat(statuses).containsExactly("MERGED", "MERGED");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void mergeTwiceOverHttpReturnsSameMergedAt() throws Exception {
+        String body = objectMapper.writeValueAsString(PullRequestMergeRequest.builder().prId(prId).build());
+
+        String first = mockMvc.perform(post("/pullRequest/merge")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pr.status").value("MERGED"))
+                .andReturn().getResponse().getContentAsString();
+        String mergedAt = objectMapper.readTree(first).at("/pr/merged_at").asText();
+
+        mockMvc.perform(post("/pullRequest/merge")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pr.status").value("MERGED"))
+                .andExpect(jsonPath("$.pr.merged_at").value(mergedAt));
+        assertThat(applicationEvents.stream(PullRequestsMergedEvent.class)).hasSize(1);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void mergeOfUnknownPullRequestReturnsNotFound() throws Exception {
+        mockMvc.perform(post("/pullRequest/merge")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PullRequestMergeRequest.builder().prId(prefix + "missing").build()))
+                        .with(csrf()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error.code").value("NOT_FOUND"));
+        assertThat(applicationEvents.stream(PullRequestsMergedEvent.class)).isEmpty();
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.PullRequestSearchResponse;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.repository.PullRequestJdbcRepository.SearchFilter;
+import org.example.avitotech.service.PullRequestService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Задержка страниц /pullRequest/search на 1M PR (2M назначений) для разных сочетаний фильтров:
+// первые страницы против страниц в глубине выдачи. Запуск: ./gradlew benchmark --tests PullRequestSearchBenchmarkTests
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.org.example.avitotech=INFO")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PullRequestSearchBenchmarkTests {
+
+    private static final int PULL_REQUESTS = 1_000_000;
+    private static final int USERS = 1_000;
+    private static final int TEAMS = 20;
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGES = 200;
+    private static final int WARMUP_PAGES = 20;
+    private static final LocalDateTime BASE = LocalDateTime.of(2001, 1, 1, 0, 0);
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+
+    @BeforeAll
+    void seed() {
+        prefix = "searchbench-" + UUID.randomUUID() + "-";
+        long start = System.nanoTime();
+
+        jdbcTemplate.update("INSERT INTO teams (team_name) SELECT ? || 'team' || t FROM generate_series(0, ? - 1) t",
+                prefix, TEAMS);
+        jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) " +
+                        "SELECT ? || 'u' || i, 'User ' || i, ? || 'team' || (i % ?), true FROM generate_series(0, ? - 1) i",
+                prefix, prefix, TEAMS, USERS);
+        // PR раз в минуту, автор i % USERS, ревьюверы - следующие за ним; у каждого автора открыт каждый десятый PR
+        jdbcTemplate.update("INSERT INTO pull_requests (pull_request_id, pull_request_name, author_id, status, created_at, merged_at) " +
+                        "SELECT ? || 'pr' || i, 'PR ' || i, ? || 'u' || (i % ?), " +
+                        "CASE WHEN i / ? % 10 = 0 THEN 'OPEN' ELSE 'MERGED' END, " +
+                        "?::timestamp + i * interval '1 minute', " +
+                        "CASE WHEN i / ? % 10 = 0 THEN NULL ELSE ?::timestamp + i * interval '1 minute' + interval '1 hour' END " +
+                        "FROM generate_series(0, ? - 1) i",
+                prefix, prefix, USERS, USERS, BASE, USERS, BASE, PULL_REQUESTS);
+        jdbcTemplate.update("INSERT INTO assigned_reviewers (pull_request_key, user_key, status, created_at) " +
+                        "SELECT pr.pull_request_key, u.user_key, pr.status, pr.created_at " +
+                        "FROM generate_series(0, ? - 1) i CROSS JOIN (VALUES (1), (7)) reviewers(r) " +
+                        "JOIN pull_requests pr ON pr.pull_request_id = ? || 'pr' || i " +
+                        "JOIN users u ON u.user_id = ? || 'u' || ((i + r) % ?)",
+                PULL_REQUESTS, prefix, prefix, USERS);
+        // VACUUM заполняет карту видимости, без неё index only scan читает таблицу
+        jdbcTemplate.execute("VACUUM ANALYZE pull_requests");
+        jdbcTemplate.execute("VACUUM ANALYZE assigned_reviewers");
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+
+        System.out.printf("seeded %d pull requests in %.1f s%n", PULL_REQUESTS, (System.nanoTime() - start) / 1e9);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    @Test
+    void comparePageLatencyAcrossFilterCombinations() {
+        LocalDateTime from = BASE.plusDays(200);
+        LocalDateTime to = BASE.plusDays(400);
+
+        measure("no filters", SearchFilter.builder().build());
+        measure("status=OPEN", SearchFilter.builder().status(PullRequestStatus.OPEN).build());
+        measure("created range", SearchFilter.builder().createdFrom(from).createdTo(to).build());
+        measure("team", SearchFilter.builder().teamName(prefix + "team3").build());
+        measure("team, status=OPEN, range", SearchFilter.builder()
+                .teamName(prefix + "team3").status(PullRequestStatus.OPEN).createdFrom(from).createdTo(to).build());
+        measure("author", SearchFilter.builder().authorId(prefix + "u42").build());
+        measure("author, status=OPEN", SearchFilter.builder()
+                .authorId(prefix + "u40").status(PullRequestStatus.OPEN).build());
+        measure("reviewer", SearchFilter.builder().reviewerId(prefix + "u42").build());
+        measure("reviewer, status=MERGED", SearchFilter.builder()
+                .reviewerId(prefix + "u42").status(PullRequestStatus.MERGED).build());
+    }
+
+    private void measure(String mode, SearchFilter filter) {
+        walk(filter, WARMUP_PAGES);
+        long[] latencies = walk(filter, PAGES);
+        assertThat(latencies.length).isPositive();
+
+        int edge = Math.min(10, latencies.length);
+        System.out.printf("%-28s pages=%3d  first %d p50=%7.1f us  last %d p50=%7.1f us  all p99=%7.1f us%n",
+                mode,
+                latencies.length,
+                edge, p50(Arrays.copyOfRange(latencies, 0, edge)),
+                edge, p50(Arrays.copyOfRange(latencies, latencies.length - edge, latencies.length)),
+                percentile(latencies, 0.99));
+    }
+
+    private long[] walk(SearchFilter filter, int pages) {
+        long[] latencies = new long[pages];
+        String cursor = null;
+        int page = 0;
+        while (page < pages) {
+            long start = System.nanoTime();
+            PullRequestSearchResponse response = pullRequestService.searchPullRequests(filter, PAGE_SIZE, cursor);
+            latencies[page++] = System.nanoTime() - start;
+            cursor = response.getNextCursor();
+            if (cursor == null) {
+                break;
+            }
+        }
+        return Arrays.copyOf(latencies, page);
+    }
+
+    private static double p50(long[] latencies) {
+        return percentile(latencies, 0.5);
+    }
+
+    private static double percentile(long[] latencies, double percentile) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) (sorted.length * percentile)] / 1_000.0;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.avitotech;
+
+import org.example.avitotech.config.ReplicaPool;
+import org.example.avitotech.config.ReplicaRead;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Маршрутизация read-only транзакций методов @ReplicaRead на реплики. Реплика по умолчанию - та же БД с другим
+// application_name, по которому видно, какой пул выдал соединение; вторая реплика недоступна.
+// Против настоящей реплики: REPLICA_DB_URL=jdbc:postgresql://localhost:5433/postgres.
+// Контекст с двумя пулами закрывается после класса, иначе прогон упирается в max_connections
+@DirtiesContext
+@SpringBootTest(properties = {
+        "app.datasource.replicas[0].url=${REPLICA_DB_URL:${spring.datasource.url}}?ApplicationName=" + ReadReplicaRoutingTests.REPLICA,
+        "app.datasource.replicas[1].url=jdbc:postgresql://localhost:1/unreachable",
+        "app.datasource.read-your-writes-window=PT1M"
+})
+class ReadReplicaRoutingTests {
+
+    static final String REPLICA = "avito-tech-replica";
+
+    private static final String SERVED_BY_SQL = "SELECT current_setting('application_name')";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private ReplicaReader replicaReader;
+
+    @BeforeEach
+    void setUp() {
+        replicaPool.checkReplicas();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replicaReadsGoToHealthyReplica() {
+        assertThat(replicaPool.healthyReplicas()).isEqualTo(1);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(replicaReader.servedBy()).isEqualTo(REPLICA);
+        }
+    }
+
+    @Test
+    void otherReadOnlyTransactionsGoToPrimary() {
+        assertThat(servedBy(true)).isNotEqualTo(REPLICA);
+    }
+
+    @Test
+    void writeTransactionsGoToPrimary() {
+        assertThat(servedBy(false)).isNotEqualTo(REPLICA);
+    }
+
+    @Test
+    void userReadsPrimaryAfterOwnWrite() {
+        authenticate("replica-test-writer");
+        assertThat(replicaReader.servedBy()).isEqualTo(REPLICA);
+        servedBy(false);
+        assertThat(replicaReader.servedBy()).isNotEqualTo(REPLICA);
+
+        authenticate("replica-test-reader");
+        assertThat(replicaReader.servedBy()).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinUser() {
+        authenticate("replica-test-rollback");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject(SERVED_BY_SQL, String.class);
+            status.setRollbackOnly();
+        });
+
+        assertThat(replicaReader.servedBy()).isEqualTo(REPLICA);
+    }
+
+    private String servedBy(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbcTemplate.queryForObject(SERVED_BY_SQL, String.class));
+    }
+
+    private static void authenticate(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, List.of()));
+    }
+
+    @TestConfiguration
+    static class ReplicaReaderConfig {
+
+        @Bean
+        ReplicaReader replicaReader(JdbcTemplate jdbcTemplate) {
+            return new ReplicaReader(jdbcTemplate);
+        }
+    }
+
+    static class ReplicaReader {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        ReplicaReader(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @ReplicaRead
+        @Transactional(readOnly = true)
+        public String servedBy() {
+            return jdbcTemplate.queryForObject(SERVED_BY_SQL, String.class);
+        }
+    }
+}
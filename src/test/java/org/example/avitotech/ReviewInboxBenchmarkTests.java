@@ -0,0 +1,125 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.UserReviewResponse;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Задержка страницы /users/getReview в зависимости от истории ревьювера: у ревьюверов 1k, 10k и 100k
+// назначений, открыт каждый сотый PR. Страница берётся диапазоном индекса (user_key, status, created_at),
+// поэтому время не должно расти с историей. Запуск: ./gradlew benchmark --tests ReviewInboxBenchmarkTests
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.org.example.avitotech=INFO")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReviewInboxBenchmarkTests {
+
+    private static final int[] HISTORY_SIZES = {1_000, 10_000, 100_000};
+    private static final int OPEN_EVERY = 100;
+    private static final int PAGE_SIZE = 50;
+    private static final int DEEP_PAGE = 20;
+    private static final int ROUNDS = 30;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final LocalDateTime BASE = LocalDateTime.of(2001, 1, 1, 0, 0);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+
+    @BeforeAll
+    void seed() {
+        prefix = "inboxbench-" + UUID.randomUUID() + "-";
+        long start = System.nanoTime();
+
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (? || 'team')", prefix);
+        jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (? || 'author', 'Author', ? || 'team', true)",
+                prefix, prefix);
+        for (int history : HISTORY_SIZES) {
+            String reviewer = prefix + "r" + history;
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ? || 'team', true)",
+                    reviewer, "Reviewer " + history, prefix);
+            // PR раз в минуту; открыт каждый OPEN_EVERY-й
+            jdbcTemplate.update("INSERT INTO pull_requests (pull_request_id, pull_request_name, author_id, status, created_at, merged_at) " +
+                            "SELECT ? || '-pr' || i, 'PR ' || i, ? || 'author', " +
+                            "CASE WHEN i % ? = 0 THEN 'OPEN' ELSE 'MERGED' END, " +
+                            "?::timestamp + i * interval '1 minute', " +
+                            "CASE WHEN i % ? = 0 THEN NULL ELSE ?::timestamp + i * interval '1 minute' + interval '1 hour' END " +
+                            "FROM generate_series(0, ? - 1) i",
+                    reviewer, prefix, OPEN_EVERY, BASE, OPEN_EVERY, BASE, history);
+            jdbcTemplate.update("INSERT INTO assigned_reviewers (pull_request_key, user_key, status, created_at) " +
+                            "SELECT pr.pull_request_key, u.user_key, pr.status, pr.created_at FROM pull_requests pr JOIN users u ON u.user_id = ? " +
+                            "WHERE pr.pull_request_id LIKE ? || '-pr%'",
+                    reviewer, reviewer);
+        }
+        jdbcTemplate.execute("VACUUM ANALYZE pull_requests");
+        jdbcTemplate.execute("VACUUM ANALYZE assigned_reviewers");
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+
+        System.out.printf("seeded reviewers with %s assignments in %.1f s%n",
+                Arrays.toString(HISTORY_SIZES), (System.nanoTime() - start) / 1e9);
+    }
+
+    @AfterAll
+    void cleanUp() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    @Test
+    void pageLatencyByReviewerHistory() {
+        for (int history : HISTORY_SIZES) {
+            String reviewer = prefix + "r" + history;
+            String deepCursor = cursorAtPage(reviewer, DEEP_PAGE);
+
+            double open = measure(reviewer, PullRequestStatus.OPEN, null);
+            double all = measure(reviewer, null, null);
+            double deep = measure(reviewer, null, deepCursor);
+            System.out.printf("history %,7d: status=OPEN first page p50=%8.1f us  all first page p50=%8.1f us  " +
+                    "all page %d p50=%8.1f us%n", history, open, all, DEEP_PAGE, deep);
+        }
+    }
+
+    private String cursorAtPage(String reviewer, int page) {
+        String cursor = null;
+        for (int i = 1; i < page; i++) {
+            cursor = userService.getUserPullRequests(reviewer, null, PAGE_SIZE, cursor, false).getNextCursor();
+        }
+        assertThat(cursor).isNotNull();
+        return cursor;
+    }
+
+    private double measure(String reviewer, PullRequestStatus status, String cursor) {
+        long[] latencies = new long[ROUNDS];
+        for (int i = -WARMUP_ROUNDS; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            UserReviewResponse response = userService.getUserPullRequests(reviewer, status, PAGE_SIZE, cursor, false);
+            long elapsed = System.nanoTime() - start;
+            assertThat(response.getPullRequests()).isNotEmpty();
+            if (i >= 0) {
+                latencies[i] = elapsed;
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies[ROUNDS / 2] / 1_000.0;
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.PullRequestBatchItemResponse;
+import org.example.avitotech.model.PullRequest;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.service.PullRequestService;
+import org.example.avitotech.service.ReviewerLoadIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Выбор ревьюверов по нагрузке против реальной БД: в команде u0..u6, u0 - автор
+@SpringBootTest
+class ReviewerLoadIndexTests {
+
+    private static final int MEMBERS = 7;
+
+    @Autowired
+    private ReviewerLoadIndex reviewerLoadIndex;
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String teamName;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "load-" + UUID.randomUUID() + "-";
+        teamName = prefix + "team";
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (?)", teamName);
+        for (int i = 0; i < MEMBERS; i++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    prefix + "u" + i, "User " + i, teamName);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    @Test
+    void picksLeastLoadedAfterCommittedAssignments() {
+        pullRequestService.createPullRequest(prefix + "pr1", "Load", prefix + "u0", List.of(prefix + "u1", prefix + "u2"));
+        pullRequestService.createPullRequest(prefix + "pr2", "Load", prefix + "u0", List.of(prefix + "u1", prefix + "u3"));
+
+        List<String> picked = reviewerLoadIndex.pickReviewers(teamName, Set.of(prefix + "u0"), 3);
+
+        assertThat(picked).containsExactlyInAnyOrder(prefix + "u4", prefix + "u5", prefix + "u6");
+    }
+
+    @Test
+    void pendingReviewsCountAsLoad() {
+        Map<String, Integer> pending = Map.of(prefix + "u1", 1, prefix + "u2", 1, prefix + "u3", 2);
+
+        List<String> picked = reviewerLoadIndex.pickReviewers(teamName, Set.of(prefix + "u0"), 4, pending);
+
+        assertThat(picked).hasSize(4).contains(prefix + "u4", prefix + "u5", prefix + "u6")
+                .doesNotContain(prefix + "u3");
+    }
+
+    // Три PR пакета с автоназначением по два ревьювера: каждый из шести участников - ровно в одном
+    @Test
+    void batchSpreadsAutoAssignedReviewersAcrossTeam() {
+        List<PullRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            batch.add(PullRequest.builder()
+                    .pullRequestId(prefix + "pr" + i)
+                    .pullRequestName("Batch " + i)
+                    .authorId(prefix + "u0")
+                    .status(PullRequestStatus.OPEN)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+
+        List<PullRequestBatchItemResponse> results = pullRequestService.createPullRequests(batch);
+
+        assertThat(results).allMatch(PullRequestBatchItemResponse::isCreated);
+        Map<String, Integer> reviews = new HashMap<>();
+        jdbcTemplate.queryForList("SELECT u.user_id FROM assigned_reviewers ar " +
+                        "JOIN users u ON u.user_key = ar.user_key " +
+                        "JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key " +
+                        "WHERE pr.pull_request_id LIKE ?", String.class, prefix + "pr%")
+                .forEach(userId -> reviews.merge(userId, 1, Integer::sum));
+        assertThat(reviews).hasSize(MEMBERS - 1).doesNotContainKey(prefix + "u0");
+        assertThat(reviews.values()).containsOnly(1);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.avitotech;
+
+import org.example.avitotech.exception.ApiException;
+import org.example.avitotech.exception.ErrorCode;
+import org.example.avitotech.repository.PullRequestJdbcRepository;
+import org.example.avitotech.service.PullRequestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Автоматическая замена ревьювера против реальной БД: в команде u0..u3, автор u0, ревьюверы u1 и u2
+@SpringBootTest
+class ReviewerReassignTests {
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private PullRequestJdbcRepository pullRequestJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String prId;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "reassign-" + UUID.randomUUID() + "-";
+        String teamName = prefix + "team";
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (?)", teamName);
+        for (int i = 0; i < 4; i++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    prefix + "u" + i, "User " + i, teamName);
+        }
+        prId = prefix + "pr1";
+        pullRequestService.createPullRequest(prId, "Reassign", prefix + "u0", List.of(prefix + "u1", prefix + "u2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    // Замена прочитала PR ещё OPEN и ждёт блокировку назначений, пока слияние не закоммитится
+    @Test
+    void concurrentMergeRejectsAutomaticReassign() throws Exception {
+        CompletableFuture<?> reassign = new TransactionTemplate(transactionManager).execute(status -> {
+            assertThat(pullRequestJdbcRepository.mergeIfOpen(prId, LocalDateTime.now())).isPresent();
+            CompletableFuture<?> future = CompletableFuture.runAsync(
+                    () -> pullRequestService.reassignReviewerAutomatically(prId, prefix + "u1"));
+            awaitLockWait(future);
+            return future;
+        });
+
+        assertThatThrownBy(reassign::join)
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.PR_MERGED));
+        assertThat(reviewers()).containsExactlyInAnyOrder(prefix + "u1", prefix + "u2");
+    }
+
+    @Test
+    void replacesOnlyOnOpenPullRequest() {
+        pullRequestService.mergePullRequest(prId);
+
+        assertThat(pullRequestJdbcRepository.replaceOpenReviewer(prId, prefix + "u1", prefix + "u3")).isZero();
+        assertThatThrownBy(() -> pullRequestService.reassignReviewerAutomatically(prId, prefix + "u1"))
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.PR_MERGED));
+        assertThat(reviewers()).containsExactlyInAnyOrder(prefix + "u1", prefix + "u2");
+    }
+
+    private void awaitLockWait(CompletableFuture<?> future) {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < deadline && !future.isDone()) {
+            // pg_stat_activity иначе остаётся снимком на всю транзакцию
+            jdbcTemplate.execute("SELECT pg_stat_clear_snapshot()");
+            Integer waiting = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity " +
+                    "WHERE wait_event_type = 'Lock' AND query LIKE 'UPDATE assigned_reviewers%'", Integer.class);
+            if (waiting > 0) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+        throw new AssertionError("reassign did not wait for the merge lock");
+    }
+
+    private List<String> reviewers() {
+        return jdbcTemplate.queryForList("SELECT u.user_id FROM assigned_reviewers ar " +
+                "JOIN users u ON u.user_key = ar.user_key " +
+                "JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key " +
+                "WHERE pr.pull_request_id = ?", String.class, prId);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.avitotech;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Миграции против сущностей: контекст поднимается с ddl-auto=validate, так что Hibernate сверяет
+// сущности с рабочей схемой, а схема, собранная миграциями с нуля, сравнивается с рабочей
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+class SchemaMigrationTests {
+
+    private static final List<String> QUERY_INDEXES = List.of(
+            "idx_archived_assigned_reviewers_user_key_created_at",
+            "idx_archived_pull_requests_author_status_created_at",
+            "idx_archived_pull_requests_status_created_at",
+            "idx_assigned_reviewers_user_key_status_created_at",
+            "idx_pull_requests_author_status_created_at",
+            "idx_pull_requests_merged_at",
+            "idx_pull_requests_open",
+            "idx_pull_requests_status_created_at",
+            "idx_users_team_name_is_active"
+    );
+
+    private static final String COLUMNS_SQL =
+            "SELECT table_name || '.' || column_name || ' ' || data_type || ' ' || " +
+                    "COALESCE(character_maximum_length::text, '') || ' ' || is_nullable " +
+                    "FROM information_schema.columns " +
+                    "WHERE table_schema = ? AND table_name <> 'flyway_schema_history' " +
+                    "ORDER BY table_name, column_name";
+
+    private static final String INDEXES_SQL =
+            "SELECT indexname FROM pg_indexes WHERE schemaname = ? AND indexname LIKE 'idx\\_%' ORDER BY indexname";
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void allMigrationsAppliedToWorkingSchema() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(Arrays.stream(flyway.info().applied()).map(MigrationInfo::getState))
+                .allMatch(state -> state == MigrationState.SUCCESS || state == MigrationState.BASELINE);
+
+        String schema = jdbcTemplate.queryForObject("SELECT current_schema()", String.class);
+        assertThat(jdbcTemplate.queryForList(INDEXES_SQL, String.class, schema))
+                .containsExactlyElementsOf(QUERY_INDEXES);
+    }
+
+    @Test
+    void migrationsBuildWorkingSchemaFromScratch() {
+        String schema = "migration_test_" + UUID.randomUUID().toString().replace("-", "");
+        try {
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .schemas(schema)
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+
+            String workingSchema = jdbcTemplate.queryForObject("SELECT current_schema()", String.class);
+            assertThat(jdbcTemplate.queryForList(COLUMNS_SQL, String.class, schema))
+                    .isNotEmpty()
+                    .containsExactlyElementsOf(jdbcTemplate.queryForList(COLUMNS_SQL, String.class, workingSchema));
+            assertThat(jdbcTemplate.queryForList(INDEXES_SQL, String.class, schema))
+                    .containsExactlyElementsOf(QUERY_INDEXES);
+        } finally {
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+}
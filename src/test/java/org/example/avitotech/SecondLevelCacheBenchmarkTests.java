@@ -0,0 +1,120 @@
+package org.example.avitotech;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.avitotech.metrics.SqlStatementCounter;
+import org.example.avitotech.service.PullRequestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+// Число SQL-запросов и задержка createPullRequest и reassignReviewer с пустым и прогретым
+// кэшем второго уровня. Запуск: ./gradlew benchmark --tests SecondLevelCacheBenchmarkTests
+@Tag("benchmark")
+@SpringBootTest
+class SecondLevelCacheBenchmarkTests {
+
+    private static final int TEAM_SIZE = 50;
+    private static final int WARMUP_OPERATIONS = 100;
+    private static final int MEASURED_OPERATIONS = 500;
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "l2bench-" + UUID.randomUUID() + "-";
+        String teamName = prefix + "team";
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (?)", teamName);
+        for (int i = 0; i < TEAM_SIZE; i++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    user(i), "User " + i, teamName);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void compareCreateAndReassignWithColdAndWarmCache() {
+        run(WARMUP_OPERATIONS, false, this::createPullRequest);
+        report("createPullRequest, cold cache", run(MEASURED_OPERATIONS, true, this::createPullRequest));
+        report("createPullRequest, warm cache", run(MEASURED_OPERATIONS, false, this::createPullRequest));
+
+        String prId = createPullRequest(0);
+        run(WARMUP_OPERATIONS, false, i -> reassign(prId, i));
+        report("reassignReviewer, cold cache", run(MEASURED_OPERATIONS, true, i -> reassign(prId, i)));
+        report("reassignReviewer, warm cache", run(MEASURED_OPERATIONS, false, i -> reassign(prId, i)));
+    }
+
+    private String createPullRequest(int i) {
+        String prId = prefix + "pr" + sequence++;
+        pullRequestService.createPullRequest(prId, "Benchmark", user(i % TEAM_SIZE),
+                List.of(user((i + 1) % TEAM_SIZE), user((i + 2) % TEAM_SIZE)));
+        return prId;
+    }
+
+    // Ревьювер user(1) попеременно меняется на user(3) и обратно; user(2) остаётся на PR
+    private String reassign(String prId, int i) {
+        String from = i % 2 == 0 ? user(1) : user(3);
+        String to = i % 2 == 0 ? user(3) : user(1);
+        pullRequestService.reassignReviewer(prId, from, to);
+        return prId;
+    }
+
+    private long[][] run(int operations, boolean coldCache, IntFunction<String> operation) {
+        long[][] result = new long[2][operations];
+        for (int i = 0; i < operations; i++) {
+            if (coldCache) {
+                entityManagerFactory.getCache().evictAll();
+            }
+            SqlStatementCounter.start();
+            long start = System.nanoTime();
+            operation.apply(i);
+            result[1][i] = System.nanoTime() - start;
+            result[0][i] = SqlStatementCounter.stop().getStatements();
+        }
+        return result;
+    }
+
+    private String user(int i) {
+        return prefix + "u" + i;
+    }
+
+    private static void report(String mode, long[][] result) {
+        long[] statements = result[0];
+        long[] latencies = result[1].clone();
+        Arrays.sort(latencies);
+        System.out.printf("%-32s statements/op=%5.2f  mean=%7.1f us  p50=%7.1f us  p99=%7.1f us%n",
+                mode,
+                Arrays.stream(statements).average().orElse(0),
+                Arrays.stream(latencies).average().orElse(0) / 1_000.0,
+                latencies[latencies.length / 2] / 1_000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1_000.0);
+    }
+}
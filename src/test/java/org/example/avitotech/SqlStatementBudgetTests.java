@@ -0,0 +1,306 @@
+package org.example.avitotech;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.avitotech.dto.PullRequestCreateRequest;
+import org.example.avitotech.dto.PullRequestMergeRequest;
+import org.example.avitotech.dto.TeamRequest;
+import org.example.avitotech.dto.UserSetActiveRequest;
+import org.example.avitotech.event.ReviewersChangedEvent;
+import org.example.avitotech.metrics.SqlStatementMetricsFilter;
+import org.example.avitotech.service.AssignmentStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Бюджет SQL-запросов на один вызов эндпоинта. Тесты идут через реальные сервисы и БД,
+// число запросов берётся из метрики http.server.sql.statements
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementBudgetTests {
+
+    private static final Map<String, Integer> BUDGETS = Map.of(
+            "/team/get", 1,
+            "/users/getReview", 1,
+            "/pullRequest/create", 4,
+            "/pullRequest/merge", 1,
+            // Пакет команд, чтение текущих пользователей пакета, пакет пользователей
+            "/team/import", 3,
+            // Команда, чтение состава, пакет изменённых, деактивация, переназначение ревью
+            "/team/sync", 5
+    );
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AssignmentStatistics assignmentStatistics;
+
+    private String prefix;
+    private String teamName;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "budget-" + UUID.randomUUID() + "-";
+        teamName = prefix + "team";
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (?)", teamName);
+        for (int i = 0; i < 4; i++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    prefix + "u" + i, "User " + i, teamName);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void teamGetWithinBudget() throws Exception {
+        assertWithinBudget("/team/get", get("/team/get").param("team_name", teamName));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void teamGetServedFromCacheUntilMembersChange() throws Exception {
+        assertWithinBudget("/team/get", get("/team/get").param("team_name", teamName));
+        assertThat(statementsFor(get("/team/get").param("team_name", teamName), "/team/get")).isZero();
+
+        mockMvc.perform(post("/users/setIsActive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserSetActiveRequest(prefix + "u3", false)))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/team/get").param("team_name", teamName))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members[?(@.user_id == '" + prefix + "u3')].is_active").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void pullRequestCreateDoesNotDependOnReviewerCount() throws Exception {
+        double withOneReviewer = assertWithinBudget("/pullRequest/create",
+                createRequest(prefix + "pr1", List.of(prefix + "u1")));
+        double withTwoReviewers = assertWithinBudget("/pullRequest/create",
+                createRequest(prefix + "pr2", List.of(prefix + "u1", prefix + "u2")));
+
+        assertThat(withTwoReviewers).isEqualTo(withOneReviewer);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void pullRequestMergeWithinBudget() throws Exception {
+        mockMvc.perform(createRequest(prefix + "pr1", List.of(prefix + "u1", prefix + "u2")))
+                .andExpect(status().isCreated());
+
+        assertWithinBudget("/pullRequest/merge", post("/pullRequest/merge")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new PullRequestMergeRequest(prefix + "pr1")))
+                .with(csrf()));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void teamImportDoesNotDependOnTeamOrUserCount() throws Exception {
+        double oneUser = assertWithinBudget("/team/import", importRequest(1, 1));
+        double manyUsers = assertWithinBudget("/team/import", importRequest(3, 20));
+
+        assertThat(manyUsers).isEqualTo(oneUser);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void teamSyncWritesOnlyDifferences() throws Exception {
+        // Состав совпадает с БД: только блокировка команды и чтение состава
+        assertThat(statementsFor(syncRequest(4, "User 3"), "/team/sync")).isEqualTo(2);
+
+        // u1 переименован, u2 и u3 нет в списке - деактивируются, их ревью переназначаются
+        assertWithinBudget("/team/sync", syncRequest(2, "Renamed"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void userGetReviewWithinBudget() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(createRequest(prefix + "pr" + i, List.of(prefix + "u1", prefix + "u2")))
+                    .andExpect(status().isCreated());
+        }
+
+        assertWithinBudget("/users/getReview", get("/users/getReview").param("user_id", prefix + "u1"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void statsFollowCreateAndMergeWithoutQueries() throws Exception {
+        // Пользователи добавлены в обход сервисов, команду им проставляет сверка
+        assignmentStatistics.reconcile();
+
+        mockMvc.perform(createRequest(prefix + "pr1", List.of(prefix + "u1", prefix + "u2")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(createRequest(prefix + "pr2", List.of(prefix + "u1", prefix + "u3")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/pullRequest/merge")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PullRequestMergeRequest(prefix + "pr1")))
+                        .with(csrf()))
+                .andExpect(status().isOk());
+
+        assertThat(statementsFor(get("/stats").param("team_name", teamName), "/stats")).isZero();
+        // Открытый PR - из памяти, слитый - одним точечным запросом
+        assertThat(statementsFor(get("/stats").param("pr_id", prefix + "pr2"), "/stats")).isZero();
+        assertThat(statementsFor(get("/stats").param("pr_id", prefix + "pr1"), "/stats")).isEqualTo(1);
+        assertTeamStats();
+        assertPullRequestStats();
+
+        // Пересборка из таблиц даёт те же значения, что и инкрементальные обновления
+        assignmentStatistics.reconcile();
+        assertTeamStats();
+        assertPullRequestStats();
+
+        // Назначение без снятых ревьюверов, но не создание: PR не считается новым
+        long total = assignmentStatistics.snapshot(teamName, 1).getPullRequests().getTotal();
+        assignmentStatistics.onReviewersChanged(ReviewersChangedEvent.of(
+                Map.of(prefix + "pr2", List.of(prefix + "u0")), Map.of()));
+        assertThat(assignmentStatistics.snapshot(teamName, 1).getPullRequests().getTotal()).isEqualTo(total);
+        mockMvc.perform(get("/stats").param("pr_id", prefix + "pr2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reviewers").value(3));
+        assignmentStatistics.reconcile();
+    }
+
+    private void assertPullRequestStats() throws Exception {
+        mockMvc.perform(get("/stats").param("pr_id", prefix + "pr1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("MERGED"))
+                .andExpect(jsonPath("$.reviewers").value(2))
+                .andExpect(jsonPath("$.reconciled_at").doesNotExist());
+        mockMvc.perform(get("/stats").param("pr_id", prefix + "pr2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("OPEN"))
+                .andExpect(jsonPath("$.reviewers").value(2));
+    }
+
+    private void assertTeamStats() throws Exception {
+        mockMvc.perform(get("/stats").param("team_name", teamName))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.teams[0].team_name").value(teamName))
+                .andExpect(jsonPath("$.teams[0].assignments").value(4))
+                .andExpect(jsonPath("$.teams[0].open_reviews").value(2))
+                .andExpect(jsonPath("$.users[0].user_id").value(prefix + "u1"))
+                .andExpect(jsonPath("$.users[0].assignments").value(2))
+                .andExpect(jsonPath("$.users[0].open_reviews").value(1))
+                .andExpect(jsonPath("$.users.length()").value(4));
+    }
+
+    // NDJSON: первая команда - существующая, остальные создаются импортом
+    private MockHttpServletRequestBuilder importRequest(int teams, int usersPerTeam) {
+        StringBuilder body = new StringBuilder();
+        for (int t = 0; t < teams; t++) {
+            String team = t == 0 ? teamName : prefix + "import-team" + t;
+            body.append("{\"team_name\":\"").append(team).append("\",\"members\":[");
+            for (int u = 0; u < usersPerTeam; u++) {
+                body.append(u > 0 ? "," : "")
+                        .append("{\"user_id\":\"").append(prefix).append("import-u").append(t).append('-').append(u)
+                        .append("\",\"username\":\"User\",\"is_active\":true}");
+            }
+            body.append("]}\n");
+        }
+
+        return post("/team/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(body.toString())
+                .with(csrf());
+    }
+
+    // Первые members участников из setUp; у последнего - указанное имя
+    private MockHttpServletRequestBuilder syncRequest(int members, String lastUsername) throws Exception {
+        List<TeamRequest.TeamMemberRequest> list = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            list.add(TeamRequest.TeamMemberRequest.builder()
+                    .userId(prefix + "u" + i)
+                    .username(i == members - 1 ? lastUsername : "User " + i)
+                    .isActive(true)
+                    .build());
+        }
+
+        return post("/team/sync")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new TeamRequest(teamName, list)))
+                .with(csrf());
+    }
+
+    private MockHttpServletRequestBuilder createRequest(String prId, List<String> reviewers) throws Exception {
+        PullRequestCreateRequest request = PullRequestCreateRequest.builder()
+                .prId(prId)
+                .prName("Budget check")
+                .authorId(prefix + "u0")
+                .reviewers(reviewers)
+                .build();
+
+        return post("/pullRequest/create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .with(csrf());
+    }
+
+    // Выполняет запрос и проверяет, что число SQL-запросов не превышает бюджет эндпоинта
+    private double assertWithinBudget(String uri, MockHttpServletRequestBuilder request) throws Exception {
+        double statements = statementsFor(request, uri);
+
+        assertThat(statements)
+                .as("SQL statements executed by %s", uri)
+                .isPositive()
+                .isLessThanOrEqualTo(BUDGETS.get(uri));
+        return statements;
+    }
+
+    private double statementsFor(MockHttpServletRequestBuilder request, String uri) throws Exception {
+        double before = recordedStatements(uri);
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        return recordedStatements(uri) - before;
+    }
+
+    private double recordedStatements(String uri) {
+        DistributionSummary summary = meterRegistry.find(SqlStatementMetricsFilter.STATEMENTS_METRIC)
+                .tag("uri", uri)
+                .summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+}
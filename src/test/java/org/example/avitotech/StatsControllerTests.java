@@ -0,0 +1,123 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.PullRequestStatsResponse;
+import org.example.avitotech.dto.StatsResponse;
+import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.service.AssignmentStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StatsControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AssignmentStatistics assignmentStatistics;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetStatsSuccess() throws Exception {
+        StatsResponse response = StatsResponse.builder()
+                .pullRequests(StatsResponse.PullRequestStats.builder()
+                        .total(3)
+                        .open(2)
+                        .merged(1)
+                        .byReviewerCount(Map.of(2, 3L))
+                        .build())
+                .teams(List.of(new StatsResponse.TeamStats("backend", 6, 4)))
+                .users(List.of(
+                        new StatsResponse.UserStats("u1", "backend", 3, 2),
+                        new StatsResponse.UserStats("u2", "backend", 3, 2)))
+                .build();
+        when(assignmentStatistics.snapshot(null, 100)).thenReturn(response);
+
+        mockMvc.perform(get("/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pull_requests.total").value(3))
+                .andExpect(jsonPath("$.pull_requests.merged").value(1))
+                .andExpect(jsonPath("$.pull_requests.by_reviewer_count.2").value(3))
+                .andExpect(jsonPath("$.teams[0].team_name").value("backend"))
+                .andExpect(jsonPath("$.teams[0].open_reviews").value(4))
+                .andExpect(jsonPath("$.users[0].user_id").value("u1"))
+                .andExpect(jsonPath("$.users[1].assignments").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testGetStatsFilteredByTeam() throws Exception {
+        when(assignmentStatistics.snapshot("backend", 10)).thenReturn(StatsResponse.builder()
+                .teams(List.of(new StatsResponse.TeamStats("backend", 1, 1)))
+                .users(List.of(new StatsResponse.UserStats("u1", "backend", 1, 1)))
+                .build());
+
+        mockMvc.perform(get("/stats").param("team_name", "backend").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.teams.length()").value(1))
+                .andExpect(jsonPath("$.users[0].team_name").value("backend"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetPullRequestStats() throws Exception {
+        when(assignmentStatistics.pullRequestSnapshot("pr-1")).thenReturn(Optional.of(PullRequestStatsResponse.builder()
+                .pullRequestId("pr-1")
+                .status(PullRequestStatus.OPEN)
+                .reviewers(2)
+                .build()));
+
+        mockMvc.perform(get("/stats").param("pr_id", "pr-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pull_request_id").value("pr-1"))
+                .andExpect(jsonPath("$.status").value("OPEN"))
+                .andExpect(jsonPath("$.reviewers").value(2));
+
+        verify(assignmentStatistics, never()).snapshot(any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetPullRequestStatsNotFound() throws Exception {
+        when(assignmentStatistics.pullRequestSnapshot("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/stats").param("pr_id", "missing"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error.code").value("NOT_FOUND"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetStatsInvalidLimit() throws Exception {
+        mockMvc.perform(get("/stats").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("BAD_REQUEST"));
+
+        verify(assignmentStatistics, never()).snapshot(any(), anyInt());
+    }
+
+    @Test
+    void testGetStatsUnauthorized() throws Exception {
+        mockMvc.perform(get("/stats"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -2,11 +2,16 @@ package org.example.avitotech;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
+import org.example.avitotech.dto.TeamImportResponse;
+import org.example.avitotech.dto.TeamSyncResponse;
 import org.example.avitotech.dto.TeamRequest;
+import org.example.avitotech.event.UsersChangedEvent;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.model.Team;
 import org.example.avitotech.model.User;
+import org.example.avitotech.service.ResourceVersions;
+import org.example.avitotech.service.TeamImportService;
 import org.example.avitotech.service.TeamService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,9 +25,11 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -41,9 +48,15 @@ class TeamControllerTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     @MockitoBean
     private TeamService teamService;
 
+    @MockitoBean
+    private TeamImportService teamImportService;
+
     private Team testTeam;
     private List<User> testMembers;
 
@@ -266,6 +279,46 @@ class TeamControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetTeamNotModified() throws Exception {
+        when(teamService.getTeamByName("backend")).thenReturn(testTeam);
+
+        String eTag = mockMvc.perform(get("/team/get")
+                        .param("team_name", "backend"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/team/get")
+                        .param("team_name", "backend")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(teamService, times(1)).getTeamByName("backend");
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetTeamModifiedAfterUsersChanged() throws Exception {
+        when(teamService.getTeamByName("backend")).thenReturn(testTeam);
+
+        String eTag = mockMvc.perform(get("/team/get")
+                        .param("team_name", "backend"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        resourceVersions.onUsersChanged(UsersChangedEvent.of(List.of("u2"), List.of("backend")));
+
+        mockMvc.perform(get("/team/get")
+                        .param("team_name", "backend")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.team_name").value("backend"));
+    }
+
     @Test
     void testGetTeamUnauthorized() throws Exception {
         mockMvc.perform(get("/team/get")
@@ -305,5 +358,130 @@ class TeamControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.members[0].is_active").value(true))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.members[1].is_active").value(false));
     }
-}
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testImportTeamsNdjson() throws Exception {
+        when(teamImportService.importTeams(any(InputStream.class))).thenReturn(TeamImportResponse.builder()
+                .teams(2)
+                .teamsCreated(1)
+                .usersCreated(3)
+                .usersUpdated(1)
+                .usersUnchanged(0)
+                .build());
+
+        mockMvc.perform(post("/team/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"team_name":"backend","members":[{"user_id":"u1","username":"Alice","is_active":true}]}
+                                {"team_name":"frontend","members":[{"user_id":"u3","username":"Carol","is_active":true}]}
+                                """)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.teams").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.teams_created").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.users_created").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.users_updated").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.users_unchanged").value(0));
+
+        verify(teamImportService).importTeams(any(InputStream.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testImportTeamsInvalidBody() throws Exception {
+        when(teamImportService.importTeams(any(InputStream.class))).thenThrow(new ApiException(
+                ErrorCode.BAD_REQUEST, "Invalid import body at line 1, column 2: Unexpected end-of-input",
+                ErrorCode.ErrorCategory.CLIENT_ERROR));
+
+        mockMvc.perform(post("/team/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("BAD_REQUEST"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testImportTeamsForbidden() throws Exception {
+        mockMvc.perform(post("/team/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}")
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(teamImportService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testSyncTeam() throws Exception {
+        TeamRequest request = TeamRequest.builder()
+                .teamName("backend")
+                .members(List.of(
+                        TeamRequest.TeamMemberRequest.builder().userId("u1").username("Alice").isActive(true).build(),
+                        TeamRequest.TeamMemberRequest.builder().userId("u3").username("Carol").isActive(true).build()))
+                .build();
+
+        when(teamService.syncTeam(any(Team.class))).thenReturn(TeamSyncResponse.builder()
+                .teamName("backend")
+                .teamCreated(false)
+                .added(List.of("u3"))
+                .moved(List.of())
+                .updated(List.of())
+                .deactivated(List.of("u2"))
+                .unchanged(1)
+                .reassignedReviews(1)
+                .reviewsWithoutCandidate(0)
+                .build());
+
+        mockMvc.perform(post("/team/sync")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.team_name").value("backend"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.team_created").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.added[0]").value("u3"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deactivated[0]").value("u2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.unchanged").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.reassigned_reviews").value(1));
+
+        verify(teamService).syncTeam(any(Team.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testSyncTeamEmptyMembers() throws Exception {
+        TeamRequest request = TeamRequest.builder()
+                .teamName("backend")
+                .members(List.of())
+                .build();
+
+        mockMvc.perform(post("/team/sync")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(teamService, never()).syncTeam(any(Team.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testSyncTeamForbidden() throws Exception {
+        TeamRequest request = TeamRequest.builder()
+                .teamName("backend")
+                .members(List.of(TeamRequest.TeamMemberRequest.builder().userId("u1").username("Alice").isActive(true).build()))
+                .build();
+
+        mockMvc.perform(post("/team/sync")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verify(teamService, never()).syncTeam(any(Team.class));
+    }
+}
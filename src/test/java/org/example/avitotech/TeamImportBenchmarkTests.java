@@ -0,0 +1,206 @@
+package org.example.avitotech;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.avitotech.dto.TeamImportResponse;
+import org.example.avitotech.dto.TeamRequest;
+import org.example.avitotech.service.TeamImportService;
+import org.example.avitotech.service.TeamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Импорт оргструктуры: TEAMS команд по USERS_PER_TEAM участников. Сравниваются разбор всего JSON-массива
+// с createTeam на каждую команду и потоковый /team/import, на объёме в 10 раз больше - разбор всего
+// массива против потокового импорта по живым данным в куче. После импорта в куче остаются индексы
+// пользователей (UserExistenceIndex, ResourceVersions и др.) - они растут с числом пользователей
+// при любом способе создания. Запуск:
+// ./gradlew benchmark --tests TeamImportBenchmarkTests
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.org.example.avitotech=WARN")
+class TeamImportBenchmarkTests {
+
+    private static final int TEAMS = 2_000;
+    private static final int USERS_PER_TEAM = 20;
+    private static final int CHECKPOINT_TEAMS = 1_000;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private TeamImportService teamImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "importbench-" + UUID.randomUUID() + "-";
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    @Test
+    void compareCreateTeamWithStreamingImport() throws Exception {
+        HeapSampler sampler = new HeapSampler();
+        long started = System.nanoTime();
+        List<TeamRequest> teams = objectMapper.readValue(new OrgChart("create-", TEAMS, 0, sampler), new TypeReference<>() {
+        });
+        teams.forEach(team -> teamService.createTeam(team.toEntity()));
+        report("createTeam per team", TEAMS, System.nanoTime() - started, sampler.stop());
+
+        sampler = new HeapSampler();
+        started = System.nanoTime();
+        TeamImportResponse created = teamImportService.importTeams(new OrgChart("import-", TEAMS, 0, sampler));
+        report("/team/import, new users", TEAMS, System.nanoTime() - started, sampler.stop());
+        assertThat(created.getUsersCreated()).isEqualTo((long) TEAMS * USERS_PER_TEAM);
+
+        // Ночная синхронизация: оргструктура почти не меняется, каждый 10-й участник переименован
+        sampler = new HeapSampler();
+        started = System.nanoTime();
+        TeamImportResponse synced = teamImportService.importTeams(new OrgChart("import-", TEAMS, 10, sampler));
+        report("/team/import, 10% changed", TEAMS, System.nanoTime() - started, sampler.stop());
+        assertThat(synced.getUsersUpdated()).isEqualTo((long) TEAMS * USERS_PER_TEAM / 10);
+    }
+
+    @Test
+    void heapDoesNotGrowWithFileSize() throws Exception {
+        int teams = TEAMS * 10;
+
+        HeapSampler sampler = new HeapSampler();
+        long started = System.nanoTime();
+        List<TeamRequest> parsed = objectMapper.readValue(new OrgChart("parse-", teams, 0, sampler), new TypeReference<>() {
+        });
+        assertThat(parsed).hasSize(teams);
+        parsed = null;
+        report("parse whole array", teams, System.nanoTime() - started, sampler.stop());
+
+        sampler = new HeapSampler();
+        started = System.nanoTime();
+        TeamImportResponse created = teamImportService.importTeams(new OrgChart("import-", teams, 0, sampler));
+        report("/team/import, new users", teams, System.nanoTime() - started, sampler.stop());
+        assertThat(created.getTeams()).isEqualTo(teams);
+    }
+
+    private static void report(String mode, int teams, long nanos, HeapSampler heap) {
+        long users = (long) teams * USERS_PER_TEAM;
+        System.out.printf("%-28s %6d teams, %6d users: %6d ms (%7.0f users/s), peak heap %4d MB, retained %4d MB%n",
+                mode, teams, users, nanos / 1_000_000, users * 1e9 / nanos,
+                heap.peak / (1024 * 1024), heap.retained / (1024 * 1024));
+    }
+
+    // JSON-массив команд, генерируемый по мере чтения; renameEvery > 0 меняет имя каждого renameEvery-го участника.
+    // Куча замеряется на каждой CHECKPOINT_TEAMS-й команде
+    private final class OrgChart extends InputStream {
+        private final String kind;
+        private final int teams;
+        private final int renameEvery;
+        private final HeapSampler sampler;
+        private byte[] chunk = "[".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int team;
+
+        OrgChart(String kind, int teams, int renameEvery, HeapSampler sampler) {
+            this.kind = kind;
+            this.teams = teams;
+            this.renameEvery = renameEvery;
+            this.sampler = sampler;
+        }
+
+        @Override
+        public int read() {
+            if (position == chunk.length && !next()) {
+                return -1;
+            }
+            return chunk[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position == chunk.length && !next()) {
+                return -1;
+            }
+            int count = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean next() {
+            if (team > teams) {
+                return false;
+            }
+            if (team % CHECKPOINT_TEAMS == 0) {
+                sampler.checkpoint();
+            }
+            StringBuilder json = new StringBuilder();
+            if (team == teams) {
+                json.append(']');
+            } else {
+                json.append(team > 0 ? "," : "")
+                        .append("{\"team_name\":\"").append(prefix).append(kind).append("team").append(team)
+                        .append("\",\"members\":[");
+                for (int u = 0; u < USERS_PER_TEAM; u++) {
+                    boolean renamed = renameEvery > 0 && u % renameEvery == 0;
+                    json.append(u > 0 ? "," : "")
+                            .append("{\"user_id\":\"").append(prefix).append(kind).append("u").append(team).append('-').append(u)
+                            .append("\",\"username\":\"").append(renamed ? "Renamed " : "User ").append(u)
+                            .append("\",\"is_active\":true}");
+                }
+                json.append("]}");
+            }
+            team++;
+            chunk = json.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+
+    // Живые данные в куче: полная сборка мусора на контрольных точках (каждые CHECKPOINT_TEAMS команд
+    // входного потока) и после замера
+    private static final class HeapSampler {
+        private final long baseline;
+        private long peak;
+        private long retained;
+
+        HeapSampler() {
+            baseline = liveHeap();
+        }
+
+        void checkpoint() {
+            peak = Math.max(peak, liveHeap() - baseline);
+        }
+
+        HeapSampler stop() {
+            retained = Math.max(0, liveHeap() - baseline);
+            return this;
+        }
+
+        private static long liveHeap() {
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+}
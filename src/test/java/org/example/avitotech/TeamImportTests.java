@@ -0,0 +1,137 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.TeamImportResponse;
+import org.example.avitotech.exception.ApiException;
+import org.example.avitotech.exception.ErrorCode;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.model.User;
+import org.example.avitotech.service.TeamImportService;
+import org.example.avitotech.service.TeamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Импорт команд против реальной БД. Пакет - два пользователя, чтобы файл шёл несколькими пакетами;
+// свой контекст закрывается после класса, чтобы его пул не занимал соединения БД до конца прогона
+@DirtiesContext
+@SpringBootTest(properties = "app.team-import.batch-size=2")
+class TeamImportTests {
+
+    @Autowired
+    private TeamImportService teamImportService;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "import-" + UUID.randomUUID() + "-";
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    @Test
+    void importsJsonArrayAndNdjson() throws Exception {
+        TeamImportResponse array = importTeams("[" +
+                team("backend", member("u1", "Alice", true), member("u2", "Bob", true), member("u3", "Carol", false)) + "," +
+                team("frontend", member("u4", "Dave", true)) +
+                "]");
+
+        assertThat(array.getTeams()).isEqualTo(2);
+        assertThat(array.getTeamsCreated()).isEqualTo(2);
+        assertThat(array.getUsersCreated()).isEqualTo(4);
+
+        TeamImportResponse ndjson = importTeams(
+                team("mobile", member("u5", "Eve", true)) + "\n" +
+                team("frontend", member("u4", "Dave", true), member("u6", "Frank", true)) + "\n");
+
+        assertThat(ndjson.getTeams()).isEqualTo(2);
+        assertThat(ndjson.getTeamsCreated()).isEqualTo(1);
+        assertThat(ndjson.getUsersCreated()).isEqualTo(2);
+        assertThat(ndjson.getUsersUnchanged()).isEqualTo(1);
+
+        Team backend = teamService.getTeamByName(prefix + "backend");
+        assertThat(backend.getMembers()).extracting(User::getUserId)
+                .containsExactlyInAnyOrder(prefix + "u1", prefix + "u2", prefix + "u3");
+        assertThat(teamService.getActiveTeamMembersCount(prefix + "backend")).isEqualTo(2);
+        assertThat(teamService.getAllTeamMembers(prefix + "frontend")).hasSize(2);
+    }
+
+    @Test
+    void reimportUpdatesOnlyChangedUsers() throws Exception {
+        importTeams(team("backend", member("u1", "Alice", true), member("u2", "Bob", true)) + "\n" +
+                team("frontend", member("u3", "Carol", true)));
+        // Команды читаются через кэш: повторный импорт должен его сбросить
+        assertThat(teamService.getAllTeamMembers(prefix + "backend")).hasSize(2);
+
+        TeamImportResponse result = importTeams(
+                team("backend", member("u1", "Alice", true), member("u2", "Robert", false)) + "\n" +
+                team("frontend", member("u3", "Carol", true), member("u1", "Alice", true)));
+
+        assertThat(result.getTeamsCreated()).isZero();
+        assertThat(result.getUsersCreated()).isZero();
+        // u1 в первом пакете совпадает с backend, во втором переносится во frontend
+        assertThat(result.getUsersUpdated()).isEqualTo(2);
+        assertThat(result.getUsersUnchanged()).isEqualTo(2);
+
+        assertThat(teamService.getAllTeamMembers(prefix + "backend")).extracting(User::getUserId)
+                .containsExactly(prefix + "u2");
+        assertThat(teamService.getActiveTeamMembersCount(prefix + "backend")).isZero();
+        assertThat(teamService.getAllTeamMembers(prefix + "frontend")).extracting(User::getUserId)
+                .containsExactlyInAnyOrder(prefix + "u1", prefix + "u3");
+
+        TeamImportResponse again = importTeams(
+                team("backend", member("u2", "Robert", false)) + "\n" +
+                team("frontend", member("u3", "Carol", true), member("u1", "Alice", true)));
+        assertThat(again.getUsersUnchanged()).isEqualTo(3);
+        assertThat(again.getUsersCreated() + again.getUsersUpdated()).isZero();
+    }
+
+    @Test
+    void rejectsInvalidTeamAndMalformedBody() {
+        assertThatThrownBy(() -> importTeams(team("backend", member("u1", "", true))))
+                .isInstanceOfSatisfying(ApiException.class, ex -> {
+                    assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.BAD_REQUEST);
+                    assertThat(ex.getErrorMessage()).contains("Team #1").contains("username");
+                });
+
+        assertThatThrownBy(() -> importTeams("[" + team("backend", member("u1", "Alice", true)) + ", {\"team_name\": "))
+                .isInstanceOfSatisfying(ApiException.class, ex -> {
+                    assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.BAD_REQUEST);
+                    assertThat(ex.getErrorMessage()).contains("line 1");
+                });
+    }
+
+    private TeamImportResponse importTeams(String body) throws Exception {
+        return teamImportService.importTeams(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String team(String name, String... members) {
+        return "{\"team_name\":\"" + prefix + name + "\",\"members\":[" + String.join(",", members) + "]}";
+    }
+
+    private String member(String userId, String username, boolean active) {
+        return "{\"user_id\":\"" + prefix + userId + "\",\"username\":\"" + username + "\",\"is_active\":" + active + "}";
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.TeamSyncResponse;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.model.User;
+import org.example.avitotech.repository.UserJdbcRepository;
+import org.example.avitotech.service.TeamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Ночная синхронизация команды из MEMBERS участников, где меняется 1%: /team/sync против перезаписи
+// всех участников одним пакетом upsert. Кроме времени снимается объём WAL - сколько на самом деле
+// записала БД. Запуск: ./gradlew benchmark --tests TeamSyncBenchmarkTests
+@Tag("benchmark")
+@SpringBootTest(properties = "logging.level.org.example.avitotech=WARN")
+class TeamSyncBenchmarkTests {
+
+    private static final int MEMBERS = 5_000;
+    private static final int CHANGED_EVERY = 100;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private UserJdbcRepository userJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String teamName;
+    private int round;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "syncbench-" + UUID.randomUUID() + "-";
+        teamName = prefix + "team";
+        teamService.syncTeam(team(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", prefix + "%");
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", prefix + "%");
+    }
+
+    @Test
+    void syncWritesOnlyChangedMembers() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        measure("rewrite all members", team -> transaction.executeWithoutResult(
+                status -> userJdbcRepository.upsertUsers(team.getMembers())));
+
+        measure("/team/sync", team -> {
+            TeamSyncResponse response = teamService.syncTeam(team);
+            assertThat(response.getUpdated()).hasSize(MEMBERS / CHANGED_EVERY);
+        });
+    }
+
+    private void measure(String mode, Consumer<Team> sync) {
+        long walBefore = walPosition();
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            sync.accept(team(++round));
+        }
+        long nanos = (System.nanoTime() - started) / ROUNDS;
+        long walBytes = (walPosition() - walBefore) / ROUNDS;
+        System.out.printf("%-22s %d members, %d changed: %6.1f ms, WAL %7d KB per sync%n",
+                mode, MEMBERS, MEMBERS / CHANGED_EVERY, nanos / 1e6, walBytes / 1024);
+    }
+
+    private long walPosition() {
+        return jdbcTemplate.queryForObject("SELECT pg_current_wal_lsn() - '0/0'::pg_lsn", Long.class);
+    }
+
+    // Каждый CHANGED_EVERY-й участник получает имя с номером раунда, поэтому каждый раунд меняет
+    // одних и тех же MEMBERS / CHANGED_EVERY участников
+    private Team team(int round) {
+        List<User> members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(User.builder()
+                    .userId(prefix + "u" + i)
+                    .username(round > 0 && i % CHANGED_EVERY == 0 ? "User " + i + " r" + round : "User " + i)
+                    .teamName(teamName)
+                    .isActive(true)
+                    .build());
+        }
+        return Team.builder()
+                .teamName(teamName)
+                .members(members)
+                .build();
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.avitotech;
+
+import org.example.avitotech.dto.TeamSyncResponse;
+import org.example.avitotech.exception.ApiException;
+import org.example.avitotech.exception.ErrorCode;
+import org.example.avitotech.model.Team;
+import org.example.avitotech.model.User;
+import org.example.avitotech.service.PullRequestService;
+import org.example.avitotech.service.TeamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Синхронизация состава команды против реальной БД: в команде u0..u3, в соседней x0
+@SpringBootTest
+class TeamSyncTests {
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private PullRequestService pullRequestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+    private String teamName;
+    private String otherTeam;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "sync-" + UUID.randomUUID() + "-";
+        teamName = prefix + "team";
+        otherTeam = prefix + "other";
+        jdbcTemplate.update("INSERT INTO teams (team_name) VALUES (?), (?)", teamName, otherTeam);
+        for (int i = 0; i < 4; i++) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    prefix + "u" + i, "User " + i, teamName);
+        }
+        jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, 'Other', ?, true)",
+                prefix + "x0", otherTeam);
+    }
+
+    @AfterEach
+    void tearDown() {
+        String pattern = prefix + "%";
+        jdbcTemplate.update("DELETE FROM assigned_reviewers ar USING pull_requests pr " +
+                "WHERE pr.pull_request_key = ar.pull_request_key AND pr.pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM pull_requests WHERE pull_request_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", pattern);
+        jdbcTemplate.update("DELETE FROM teams WHERE team_name LIKE ?", pattern);
+    }
+
+    @Test
+    void writesOnlyDifferences() {
+        TeamSyncResponse response = teamService.syncTeam(team(teamName,
+                member("u0", "User 0", true),
+                member("u1", "Renamed", true),
+                member("u2", "User 2", false),
+                member("x0", "Other", true),
+                member("n0", "New", true)));
+
+        assertThat(response.isTeamCreated()).isFalse();
+        assertThat(response.getAdded()).containsExactly(prefix + "n0");
+        assertThat(response.getMoved()).containsExactly(prefix + "x0");
+        assertThat(response.getUpdated()).containsExactly(prefix + "u1", prefix + "u2");
+        assertThat(response.getDeactivated()).containsExactly(prefix + "u3");
+        assertThat(response.getUnchanged()).isEqualTo(1);
+
+        assertThat(state("u1")).isEqualTo("Renamed " + teamName + " true");
+        assertThat(state("u2")).isEqualTo("User 2 " + teamName + " false");
+        assertThat(state("u3")).isEqualTo("User 3 " + teamName + " false");
+        assertThat(state("x0")).isEqualTo("Other " + teamName + " true");
+        assertThat(state("n0")).isEqualTo("New " + teamName + " true");
+
+        // Повтор того же списка ничего не пишет; u3 уже неактивен и не деактивируется снова
+        TeamSyncResponse repeated = teamService.syncTeam(team(teamName,
+                member("u0", "User 0", true),
+                member("u1", "Renamed", true),
+                member("u2", "User 2", false),
+                member("x0", "Other", true),
+                member("n0", "New", true)));
+
+        assertThat(repeated.getAdded()).isEmpty();
+        assertThat(repeated.getMoved()).isEmpty();
+        assertThat(repeated.getUpdated()).isEmpty();
+        assertThat(repeated.getDeactivated()).isEmpty();
+        assertThat(repeated.getUnchanged()).isEqualTo(5);
+        assertThat(teamService.getTeamByName(teamName).getMembers()).hasSize(6);
+        assertThat(teamService.getAllTeamMembers(otherTeam)).isEmpty();
+    }
+
+    @Test
+    void reassignsOpenReviewsOfDeactivatedMembers() {
+        String prId = prefix + "pr1";
+        pullRequestService.createPullRequest(prId, "Sync", prefix + "u0", List.of(prefix + "u1", prefix + "u2"));
+
+        TeamSyncResponse response = teamService.syncTeam(team(teamName,
+                member("u0", "User 0", true),
+                member("u1", "User 1", true),
+                member("u3", "User 3", true)));
+
+        assertThat(response.getDeactivated()).containsExactly(prefix + "u2");
+        assertThat(response.getReassignedReviews()).isEqualTo(1);
+        assertThat(reviewers(prId))
+                .containsExactlyInAnyOrder(prefix + "u1", prefix + "u3");
+    }
+
+    // Кандидаты по кругу: u0 (автор), u3, v0. Первое ревью пропускает автора и попадает на позицию
+    // второго - оба ревью PR должны получить разных кандидатов
+    @Test
+    void reassignsBothReviewersOfOnePullRequestToDistinctCandidates() {
+        String prId = prefix + "pr1";
+        pullRequestService.createPullRequest(prId, "Sync", prefix + "u0", List.of(prefix + "u1", prefix + "u2"));
+
+        TeamSyncResponse response = teamService.syncTeam(team(teamName,
+                member("u0", "User 0", true),
+                member("u3", "User 3", true),
+                member("v0", "New", true)));
+
+        assertThat(response.getDeactivated()).containsExactlyInAnyOrder(prefix + "u1", prefix + "u2");
+        assertThat(response.getReassignedReviews()).isEqualTo(2);
+        assertThat(reviewers(prId))
+                .containsExactlyInAnyOrder(prefix + "u3", prefix + "v0");
+    }
+
+    // Четыре ревьювера на PR: по нагрузке кандидаты идут u0 (автор), u2, u3, w0 (ревьюверы PR), v0 -
+    // свободный участник находится только за всеми занятыми позициями
+    @Test
+    void reassignsReviewOfPullRequestWithManyReviewers() {
+        for (String id : List.of("w0", "v0")) {
+            jdbcTemplate.update("INSERT INTO users (user_id, username, team_name, is_active) VALUES (?, ?, ?, true)",
+                    prefix + id, "User " + id, teamName);
+        }
+        String prId = prefix + "pr1";
+        pullRequestService.createPullRequest(prId, "Many", prefix + "u0",
+                List.of(prefix + "u1", prefix + "u2", prefix + "u3", prefix + "w0"));
+        pullRequestService.createPullRequest(prefix + "pr2", "Load", prefix + "u0", List.of(prefix + "v0"));
+        pullRequestService.createPullRequest(prefix + "pr3", "Load", prefix + "u0", List.of(prefix + "v0"));
+
+        TeamSyncResponse response = teamService.syncTeam(team(teamName,
+                member("u0", "User 0", true),
+                member("u2", "User 2", true),
+                member("u3", "User 3", true),
+                member("w0", "User w0", true),
+                member("v0", "User v0", true)));
+
+        assertThat(response.getDeactivated()).containsExactly(prefix + "u1");
+        assertThat(response.getReassignedReviews()).isEqualTo(1);
+        assertThat(reviewers(prId))
+                .containsExactlyInAnyOrder(prefix + "u2", prefix + "u3", prefix + "w0", prefix + "v0");
+    }
+
+    // x0 переносится из соседней команды сразу неактивным: его открытое ревью тоже переназначается
+    @Test
+    void reassignsOpenReviewsOfMemberMovedAsInactive() {
+        String prId = prefix + "pr1";
+        pullRequestService.createPullRequest(prId, "Sync", prefix + "u0", List.of(prefix + "x0"));
+
+        TeamSyncResponse response = teamService.syncTeam(team(teamName,
+                member("u0", "User 0", true),
+                member("u1", "User 1", true),
+                member("u2", "User 2", true),
+                member("u3", "User 3", true),
+                member("x0", "Other", false)));
+
+        assertThat(response.getMoved()).containsExactly(prefix + "x0");
+        assertThat(response.getReassignedReviews()).isEqualTo(1);
+        assertThat(state("x0")).isEqualTo("Other " + teamName + " false");
+        assertThat(reviewers(prId)).hasSize(1)
+                .doesNotContain(prefix + "x0", prefix + "u0");
+    }
+
+    @Test
+    void createsMissingTeamAndRejectsDuplicateMembers() {
+        String newTeam = prefix + "new";
+        TeamSyncResponse response = teamService.syncTeam(team(newTeam, member("n0", "New", true)));
+
+        assertThat(response.isTeamCreated()).isTrue();
+        assertThat(response.getAdded()).containsExactly(prefix + "n0");
+        assertThat(teamService.getTeamByName(newTeam).getMembers()).hasSize(1);
+
+        assertThatThrownBy(() -> teamService.syncTeam(team(newTeam, member("n0", "New", true), member("n0", "Again", true))))
+                .isInstanceOfSatisfying(ApiException.class,
+                        ex -> assertThat(ex.getErrorCode()).isEqualTo(ErrorCode.BAD_REQUEST));
+    }
+
+    private Team team(String name, User... members) {
+        return Team.builder()
+                .teamName(name)
+                .members(Arrays.asList(members))
+                .build();
+    }
+
+    private User member(String id, String username, boolean active) {
+        return User.builder()
+                .userId(prefix + id)
+                .username(username)
+                .isActive(active)
+                .build();
+    }
+
+    private List<String> reviewers(String prId) {
+        return jdbcTemplate.queryForList("SELECT u.user_id FROM assigned_reviewers ar " +
+                "JOIN users u ON u.user_key = ar.user_key " +
+                "JOIN pull_requests pr ON pr.pull_request_key = ar.pull_request_key " +
+                "WHERE pr.pull_request_id = ?", String.class, prId);
+    }
+
+    private String state(String id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT username || ' ' || team_name || ' ' || is_active FROM users WHERE user_id = ?",
+                String.class, prefix + id);
+    }
+}
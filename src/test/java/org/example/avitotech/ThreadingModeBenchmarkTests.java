@@ -0,0 +1,155 @@
+package org.example.avitotech;
+
+import org.example.avitotech.jwt.JwtTokenProvider;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Пропускная способность и p99 при 50, 500 и 5000 одновременных клиентах на платформенных и виртуальных
+// потоках. Клиенты в замкнутом цикле вызывают эндпоинт с медленным запросом (pg_sleep, соединение из пула
+// Hikari), ещё PROBE_CLIENTS клиентов - /health без БД: его p99 показывает, отвечает ли сервис, пока
+// медленные запросы занимают пул. Режим виртуальных потоков требует Java 21:
+// ./gradlew benchmark --tests ThreadingModeBenchmarkTests -PjavaVersion=21
+@Tag("benchmark")
+class ThreadingModeBenchmarkTests {
+
+    private static final int[] CLIENTS = {50, 500, 5_000};
+    private static final int PROBE_CLIENTS = 10;
+    private static final double SLOW_QUERY_SECONDS = 0.02;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASURED = Duration.ofSeconds(15);
+
+    @Test
+    void platformThreads() throws Exception {
+        run(false);
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads require Java 21, run with -PjavaVersion=21");
+        run(true);
+    }
+
+    private void run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = context.getBean(JwtTokenProvider.class).createUserToken("bench");
+            HttpRequest slow = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bench/slow-query"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/health"))
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpResponse<String> handler = client.send(slow, HttpResponse.BodyHandlers.ofString());
+            assertThat(handler.statusCode()).isEqualTo(200);
+            System.out.printf("%n%s, handler thread: %s%n",
+                    virtualThreads ? "virtual threads" : "platform threads", handler.body());
+
+            for (int clients : CLIENTS) {
+                Load slowLoad = new Load();
+                Load probeLoad = new Load();
+                long now = System.nanoTime();
+                long measureFrom = now + WARMUP.toNanos();
+                long measureTo = measureFrom + MEASURED.toNanos();
+                CountDownLatch done = new CountDownLatch(clients + PROBE_CLIENTS);
+                for (int i = 0; i < clients; i++) {
+                    loop(client, slow, slowLoad, measureFrom, measureTo, done);
+                }
+                for (int i = 0; i < PROBE_CLIENTS; i++) {
+                    loop(client, health, probeLoad, measureFrom, measureTo, done);
+                }
+                assertThat(done.await(MEASURED.plus(WARMUP).toSeconds() + 120, TimeUnit.SECONDS)).isTrue();
+
+                System.out.printf("%5d clients  slow query: %6.0f req/s  p50=%8.1f ms  p99=%8.1f ms  errors=%d" +
+                                "  |  /health: %6.0f req/s  p99=%8.1f ms%n",
+                        clients, slowLoad.throughput(), slowLoad.percentile(0.5), slowLoad.percentile(0.99),
+                        slowLoad.errors.get(), probeLoad.throughput(), probeLoad.percentile(0.99));
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        // Аргументы командной строки, а не properties(): те ниже application.properties по приоритету
+        return new SpringApplicationBuilder(AvitoTechApplication.class)
+                .initializers(context -> ((GenericApplicationContext) context).registerBean("benchRoutes",
+                        RouterFunction.class, () -> benchRoutes(context.getBean(JdbcTemplate.class))))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--logging.level.org.example.avitotech=WARN",
+                        "--logging.level.org.springframework.web=WARN");
+    }
+
+    // Медленный запрос держит соединение из пула SLOW_QUERY_SECONDS; ответ - поток, который его обработал
+    private static RouterFunction<ServerResponse> benchRoutes(JdbcTemplate jdbcTemplate) {
+        return RouterFunctions.route()
+                .GET("/bench/slow-query", request -> {
+                    jdbcTemplate.execute("SELECT pg_sleep(" + SLOW_QUERY_SECONDS + ")");
+                    return ServerResponse.ok().contentType(MediaType.TEXT_PLAIN).body(Thread.currentThread().toString());
+                })
+                .build();
+    }
+
+    // Замкнутый цикл одного клиента: следующий запрос уходит после ответа на предыдущий
+    private static void loop(HttpClient client, HttpRequest request, Load load,
+                             long measureFrom, long measureTo, CountDownLatch done) {
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long end = System.nanoTime();
+            // Учитываются ответы, пришедшие в окне замера, даже если запрос ушёл раньше: при тысячах
+            // клиентов задержка сравнима с окном
+            if (end >= measureFrom && end <= measureTo) {
+                if (error == null && response.statusCode() == 200) {
+                    load.latencies.add(end - start);
+                } else {
+                    load.errors.incrementAndGet();
+                }
+            }
+            if (end < measureTo) {
+                loop(client, request, load, measureFrom, measureTo, done);
+            } else {
+                done.countDown();
+            }
+        });
+    }
+
+    private static final class Load {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        double throughput() {
+            return latencies.size() / (double) MEASURED.toSeconds();
+        }
+
+        double percentile(double quantile) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * quantile))] / 1_000_000.0;
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package org.example.avitotech;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.avitotech.dto.PullRequestResponse;
+import org.example.avitotech.dto.UserDeactivateRequest;
+import org.example.avitotech.dto.UserDeactivateResponse;
+import org.example.avitotech.dto.UserReviewResponse;
 import org.example.avitotech.dto.UserSetActiveRequest;
+import org.example.avitotech.event.ReviewersChangedEvent;
 import org.example.avitotech.exception.ApiException;
 import org.example.avitotech.exception.ErrorCode;
 import org.example.avitotech.model.AssignedReviewer;
 import org.example.avitotech.model.PullRequest;
 import org.example.avitotech.model.PullRequestStatus;
+import org.example.avitotech.service.ResourceVersions;
 import org.example.avitotech.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,7 +28,9 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -38,6 +46,9 @@ class UserControllerTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResourceVersions resourceVersions;
+
     @MockitoBean
     private UserService userService;
 
@@ -200,14 +211,59 @@ class UserControllerTests {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testDeactivateUsersSuccess() throws Exception {
+        UserDeactivateRequest request = UserDeactivateRequest.builder()
+                .userIds(List.of("u1", "u2", "missing"))
+                .build();
+
+        when(userService.deactivateUsers(List.of("u1", "u2", "missing"), null)).thenReturn(
+                UserDeactivateResponse.builder()
+                        .deactivated(List.of("u1", "u2"))
+                        .notFound(List.of("missing"))
+                        .reassignedReviews(5)
+                        .reviewsWithoutCandidate(1)
+                        .build());
+
+        mockMvc.perform(post("/users/deactivate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deactivated.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.not_found[0]").value("missing"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.reassigned_reviews").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.reviews_without_candidate").value(1));
+
+        verify(userService, times(1)).deactivateUsers(List.of("u1", "u2", "missing"), null);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testDeactivateUsersBothTargets() throws Exception {
+        UserDeactivateRequest request = UserDeactivateRequest.builder()
+                .userIds(List.of("u1"))
+                .teamName("backend")
+                .build();
+
+        mockMvc.perform(post("/users/deactivate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).deactivateUsers(any(), any());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void testGetUserReviewSuccessAdmin() throws Exception {
-        when(userService.userExists("u1")).thenReturn(true);
-        when(userService.getUserPullRequests("u1")).thenReturn(testPullRequests);
+        when(userService.getUserPullRequests("u1", null, 50, null, false)).thenReturn(page("u1", testPullRequests, null));
 
         mockMvc.perform(get("/users/getReview")
                         .param("user_id", "u1")
+                        .param("status", "ALL")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests").isArray())
@@ -220,29 +276,136 @@ class UserControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests[1].status").value("MERGED"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests[1].merged_at").exists());
 
-        verify(userService, times(1)).userExists("u1");
-        verify(userService, times(1)).getUserPullRequests("u1");
+        verify(userService, times(1)).getUserPullRequests("u1", null, 50, null, false);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void testGetUserReviewSuccessUser() throws Exception {
-        when(userService.userExists("u1")).thenReturn(true);
-        when(userService.getUserPullRequests("u1")).thenReturn(testPullRequests);
+        when(userService.getUserPullRequests("u1", PullRequestStatus.OPEN, 50, null, false))
+                .thenReturn(page("u1", testPullRequests.subList(0, 1), null));
 
         mockMvc.perform(get("/users/getReview")
                         .param("user_id", "u1")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests").isArray())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests.length()").value(2));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next_cursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetUserReviewNotModified() throws Exception {
+        when(userService.getUserPullRequests("u1", PullRequestStatus.OPEN, 50, null, false))
+                .thenReturn(page("u1", testPullRequests.subList(0, 1), null));
+
+        String eTag = mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(userService, times(1)).getUserPullRequests("u1", PullRequestStatus.OPEN, 50, null, false);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetUserReviewModifiedAfterReviewersChanged() throws Exception {
+        when(userService.getUserPullRequests("u1", PullRequestStatus.OPEN, 50, null, false))
+                .thenReturn(page("u1", testPullRequests.subList(0, 1), null));
+
+        String eTag = mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // u1 остаётся ревьювером pr1, но у PR меняется состав ревьюверов
+        resourceVersions.onReviewersChanged(ReviewersChangedEvent.reassigned("pr1", "u2", "u4"));
+
+        String reassignedETag = mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andReturn().getResponse().getHeader("ETag");
+
+        resourceVersions.onReviewersChanged(ReviewersChangedEvent.created(Map.of("pr9", List.of("u1"))));
+
+        mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1")
+                        .header("If-None-Match", reassignedETag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(reassignedETag)));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetUserReviewNextPage() throws Exception {
+        when(userService.getUserPullRequests("u1", PullRequestStatus.MERGED, 1, "cursor-1", false))
+                .thenReturn(page("u1", testPullRequests.subList(1, 2), "cursor-2"));
+
+        mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1")
+                        .param("status", "MERGED")
+                        .param("limit", "1")
+                        .param("cursor", "cursor-1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests[0].pr_id").value("pr2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.next_cursor").value("cursor-2"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetUserReviewIncludeArchived() throws Exception {
+        when(userService.getUserPullRequests("u1", PullRequestStatus.MERGED, 50, null, true))
+                .thenReturn(page("u1", testPullRequests.subList(1, 2), null));
+
+        mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1")
+                        .param("status", "MERGED")
+                        .param("include_archived", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.pull_requests[0].pr_id").value("pr2"));
+
+        verify(userService, times(1)).getUserPullRequests("u1", PullRequestStatus.MERGED, 50, null, true);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetUserReviewInvalidStatus() throws Exception {
+        mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1")
+                        .param("status", "CLOSED")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error.code").value("BAD_REQUEST"));
+
+        verify(userService, never()).getUserPullRequests(any(), any(), anyInt(), any(), anyBoolean());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetUserReviewLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/users/getReview")
+                        .param("user_id", "u1")
+                        .param("limit", "501")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void testGetUserReviewEmptyList() throws Exception {
-        when(userService.userExists("u3")).thenReturn(true);
-        when(userService.getUserPullRequests("u3")).thenReturn(new ArrayList<>());
+        when(userService.getUserPullRequests("u3", PullRequestStatus.OPEN, 50, null, false)).thenReturn(page("u3", List.of(), null));
 
         mockMvc.perform(get("/users/getReview")
                         .param("user_id", "u3")
@@ -255,7 +418,8 @@ class UserControllerTests {
     @Test
     @WithMockUser(roles = "ADMIN")
     void testGetUserReviewUserNotFound() throws Exception {
-        when(userService.userExists("nonexistent")).thenReturn(false);
+        doThrow(new ApiException(ErrorCode.NOT_FOUND, "User not found", ErrorCode.ErrorCategory.CONFLICT))
+                .when(userService).getUserPullRequests("nonexistent", PullRequestStatus.OPEN, 50, null, false);
 
         mockMvc.perform(get("/users/getReview")
                         .param("user_id", "nonexistent")
@@ -289,4 +453,12 @@ class UserControllerTests {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isUnauthorized());
     }
+
+    private static UserReviewResponse page(String userId, List<PullRequest> pullRequests, String nextCursor) {
+        return UserReviewResponse.builder()
+                .userId(userId)
+                .pullRequests(pullRequests.stream().map(PullRequestResponse::from).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
 }